@@ -1,8 +1,9 @@
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The Apriori class takes in either a path or a list of sets of transactions and a minimum frequency. This class
@@ -10,11 +11,18 @@ import java.util.*;
  */
 
 public class APriori {
-    List<Set<Integer>> transactions;
+    TransactionStore transactions;
     Map<Integer, Integer> itemSupports;
 
     private double minSupport;
     private int minSupportCount;
+    private int parallelism = 1;
+    private int hashBuckets = 0;
+    private int[] tripleBucketCounts;
+    private boolean trimTransactions = false;
+
+    // largest triangular pair array used for level 2, past this the candidate trie is used instead
+    private static final long MAX_PAIR_COUNTS = 1L << 26;
 
     double startTime;
     double endTime;
@@ -26,43 +34,76 @@ public class APriori {
 
     public APriori(Path path) {
         System.out.println("Starting support counting");
-        transactions = new ArrayList<>();
-        itemSupports = new HashMap<>();
-
-        try(BufferedReader br = Files.newBufferedReader(path)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] lineSplit = line.split(" ");
-                Set<Integer> transaction = new HashSet<>();
-                for (String stringItem : lineSplit) {
-                    int item = Integer.parseInt(stringItem);
-                    transaction.add(item);
-                    itemSupports.merge(item, 1, (a,b) -> a + b);
-                }
-                transactions.add(transaction);
-            }
+        transactions = new TransactionStore();
+        try {
+            transactions = TransactionStore.read(path);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        itemSupports = transactions.countItems();
     }
 
     /**
-     * This is the constructor used when the file has already been read elsewhere. This is used in the sampled based
-     * Apriori algorithm
+     * This is the constructor used when the file has already been read elsewhere
      * @param inputTransactions
      */
 
     public APriori(List<Set<Integer>> inputTransactions) {
+        this(TransactionStore.fromSets(inputTransactions));
+    }
+
+    /**
+     * This is the constructor used when the transactions are already in a store. This is used in the sampled based
+     * Apriori algorithm
+     * @param inputTransactions
+     */
+
+    public APriori(TransactionStore inputTransactions) {
         transactions = inputTransactions;
-        itemSupports = new HashMap<>();
-        for (Set<Integer> transaction : transactions) {
-            for (Integer item : transaction) {
-                itemSupports.merge(item, 1, (a,b) -> a + b);
-            }
-        }
+        itemSupports = transactions.countItems();
         System.out.println("Apriori Initialized with " + transactions.size() + " transactions");
     }
 
+    /**
+     * This method sets how many worker threads count the supports. With more than one worker the transactions are
+     * split across a ForkJoinPool and the counts are merged at the end of every level, giving the same result as the
+     * sequential run.
+     * @param workers the number of worker threads, 1 counts on the calling thread
+     */
+
+    public void setParallelism(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = workers;
+    }
+
+    /**
+     * This method turns on the Direct Hashing and Pruning filter for size 3 candidates. While the pairs are counted,
+     * every 3-subset of frequent items in each transaction is hashed into a bucket, and a size 3 candidate whose bucket
+     * total is below the minimum support cannot be frequent so it is never counted. Hashing the triples costs more on
+     * long transactions, so it is off by default.
+     * @param buckets the number of hash buckets, 0 turns the filter off
+     */
+
+    public void setHashPruning(int buckets) {
+        if (buckets < 0) {
+            throw new IllegalArgumentException("bucket count cannot be negative");
+        }
+        this.hashBuckets = buckets;
+    }
+
+    /**
+     * This method turns on trimming the transactions between levels. Before the candidates of a level are counted, the
+     * items that are not in any candidate are stripped from every transaction and the transactions left with fewer
+     * items than the candidate size are dropped, so later levels scan a database that shrinks with the candidates.
+     * @param trim true to trim the transactions between levels
+     */
+
+    public void setTransactionTrimming(boolean trim) {
+        this.trimTransactions = trim;
+    }
+
     /**
      * This method uses the transactions in the constructor and an inputted minimum frequency to get the frequent itemsets
      * The method first iterates through the transactions to find the frequent items (frequent itemsets size 1). To get
@@ -78,80 +119,447 @@ public class APriori {
         this.minSupportCount = (int) Math.ceil(minSupport * transactions.size());
         Map<Set<Integer>, Integer> allFrequentItemsets = new HashMap<>();
 
-        Map<Set<Integer>, Integer> frequentItemsets = new HashMap<>();
-        Set<Integer> itemset;
+        // frequent itemsets of the current level as sorted item arrays in lexicographic order
+        List<int[]> frequentItemsets = new ArrayList<>();
+        List<Integer> frequentSupports = new ArrayList<>();
+        List<Integer> frequentItems = new ArrayList<>();
         for (Map.Entry<Integer, Integer> entry : itemSupports.entrySet()) {
-            int item = entry.getKey();
-            int support = entry.getValue();
-            if (support >= minSupportCount) {
-                itemset = new HashSet<>();
-                itemset.add(item);
-                frequentItemsets.put(itemset, support);
+            if (entry.getValue() >= minSupportCount) {
+                frequentItems.add(entry.getKey());
             }
         }
+        Collections.sort(frequentItems);
+        for (Integer item : frequentItems) {
+            frequentItemsets.add(new int[] {item});
+            frequentSupports.add(itemSupports.get(item));
+        }
 
+        tripleBucketCounts = null;
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        // the transactions scanned at each level, which shrink when trimming is on
+        TransactionStore levelTransactions = transactions;
         int k = 1;
         while (!frequentItemsets.isEmpty()) {
-            allFrequentItemsets.putAll(frequentItemsets);
+            for (int i = 0; i < frequentItemsets.size(); i++) {
+                allFrequentItemsets.put(toSet(frequentItemsets.get(i)), frequentSupports.get(i));
+            }
 
-            //Generate candidates and prune based on downward closure property
-            Map<Set<Integer>, Integer> candidates = createCandidates(new ArrayList<>(frequentItemsets.keySet()), k + 1);
-            Map<Set<Integer>, Integer> candidateCounts = new HashMap<>();
+            List<int[]> nextItemsets = new ArrayList<>();
+            List<Integer> nextSupports = new ArrayList<>();
+            if (k == 1 && countPairs(frequentItemsets, nextItemsets, nextSupports, pool)) {
+                // every pair of frequent items was counted directly in one scan
+            } else {
+                //Generate candidates and prune based on downward closure property
+                CandidateTrie candidates = createCandidates(frequentItemsets, k + 1);
 
-            //count support
-            for (Set<Integer> transaction : transactions) {
-                for (Set<Integer> candidate : candidates.keySet()) {
-                    if (transaction.containsAll(candidate)) {
-                        candidateCounts.merge(candidate, 1, (a, b) -> a + b);
-                    }
+                if (trimTransactions && candidates.size() > 0) {
+                    levelTransactions = levelTransactions.filter(candidateItems(candidates), k + 1);
+                    System.out.println("Trimmed to " + levelTransactions.size() + " transactions with "
+                            + levelTransactions.itemCount() + " items");
                 }
-            }
 
-            // add frequent size k itemsets
-            frequentItemsets = new HashMap<>();
-            for (Map.Entry<Set<Integer>, Integer> entry : candidateCounts.entrySet()) {
-                if (entry.getValue() >= minSupportCount) {
-                    frequentItemsets.put(entry.getKey(), entry.getValue());
+                //count support, only the k-subsets of each transaction that are candidates get visited
+                int[] candidateCounts = pool == null
+                        ? countSupports(levelTransactions, candidates, k)
+                        : countSupports(levelTransactions, candidates, k, pool);
+
+                // add frequent size k itemsets, candidates were created in lexicographic order so the level stays sorted
+                for (int id = 0; id < candidateCounts.length; id++) {
+                    if (candidateCounts[id] >= minSupportCount) {
+                        nextItemsets.add(candidates.get(id));
+                        nextSupports.add(candidateCounts[id]);
+                    }
                 }
             }
+            frequentItemsets = nextItemsets;
+            frequentSupports = nextSupports;
 
             endTime = System.currentTimeMillis();
             System.out.println(k + "-Candidate creation took " + (endTime-startTime)/1000 + " seconds" );
 
             k++;
         }
+        if (pool != null) {
+            pool.shutdown();
+        }
 
         return allFrequentItemsets;
     }
 
     /**
-     * This method creates the candidates by union two sets and checking if it is the correct. If the size is correct,
-     * the itemset is added to either the candidates or the non-candidate set.
-     * @param itemsets the list of size k itemsets
-     * @param k the needed union size
-     * @return the map of the frequent itemsets.
+     * This method answers several minimum supports with one mining run. The itemsets are mined once at the lowest
+     * threshold, and each higher threshold is answered by filtering that result, since an itemset frequent at a higher
+     * threshold is also frequent at the lowest one and keeps the same support.
+     * @param thresholds the minimum supports to answer
+     * @return a map from each threshold, in the order given, to the frequent itemsets run would return for it
+     */
+
+    public Map<Double, Map<Set<Integer>, Integer>> runSweep(double... thresholds) {
+        Map<Double, Map<Set<Integer>, Integer>> results = new LinkedHashMap<>();
+        if (thresholds.length == 0) {
+            return results;
+        }
+        double lowest = thresholds[0];
+        for (double threshold : thresholds) {
+            lowest = Math.min(lowest, threshold);
+        }
+        Map<Set<Integer>, Integer> lowestItemsets = run(lowest);
+
+        for (double threshold : thresholds) {
+            int thresholdCount = (int) Math.ceil(threshold * transactions.size());
+            Map<Set<Integer>, Integer> frequentItemsets = new HashMap<>();
+            for (Map.Entry<Set<Integer>, Integer> entry : lowestItemsets.entrySet()) {
+                if (entry.getValue() >= thresholdCount) {
+                    frequentItemsets.put(entry.getKey(), entry.getValue());
+                }
+            }
+            results.put(threshold, frequentItemsets);
+        }
+        return results;
+    }
+
+    /**
+     * This method counts the size 2 itemsets without generating candidates. The frequent items are remapped to dense ids
+     * 0..m-1 in increasing item order and every pair of frequent items in a transaction is counted in one scan into a
+     * triangular array holding the m(m-1)/2 pairs. If hash pruning is on, the 3-subsets are hashed into buckets during
+     * the same scan. With a pool the transactions are split across the workers like countSupports does, each worker
+     * counting into its own triangular array, unless one array per worker would go over MAX_PAIR_COUNTS, then the
+     * scan stays on the calling thread.
+     * @param frequentItems the frequent single items in increasing order
+     * @param pairs filled with the frequent pairs in lexicographic order
+     * @param pairSupports filled with the support of each frequent pair
+     * @param pool the pool running the workers, or null to count on the calling thread
+     * @return false if there are too many frequent items for the triangular array and nothing was counted
+     */
+
+    private boolean countPairs(List<int[]> frequentItems, List<int[]> pairs, List<Integer> pairSupports,
+                               ForkJoinPool pool) {
+        startTime = System.currentTimeMillis();
+        int m = frequentItems.size();
+        long pairCount = (long) m * (m - 1) / 2;
+        if (pairCount > MAX_PAIR_COUNTS) {
+            return false;
+        }
+
+        // remap the frequent items to dense ids
+        int[] items = new int[m];
+        for (int i = 0; i < m; i++) {
+            items[i] = frequentItems.get(i)[0];
+        }
+        ItemIndex index = new ItemIndex(items);
+
+        PairCounter counter = null;
+        if (pool != null && pairCount * parallelism <= MAX_PAIR_COUNTS) {
+            Queue<PairCounter> workerCounters = new ConcurrentLinkedQueue<>();
+            ThreadLocal<PairCounter> localCounters = ThreadLocal.withInitial(() -> {
+                PairCounter local = new PairCounter(items, index);
+                workerCounters.add(local);
+                return local;
+            });
+            int grain = Math.max(256, transactions.size() / (parallelism * 8));
+            pool.invoke(new PairTask(0, transactions.size(), grain, localCounters));
+
+            // the counts of the other workers are added to the first one
+            counter = workerCounters.poll();
+            for (PairCounter local : workerCounters) {
+                counter.add(local);
+            }
+        }
+        if (counter == null) {
+            counter = new PairCounter(items, index);
+            counter.count(0, transactions.size());
+        }
+
+        for (int a = 0; a < m - 1; a++) {
+            for (int b = a + 1; b < m; b++) {
+                int support = counter.pairCounts[pairIndex(a, b, m)];
+                if (support >= minSupportCount) {
+                    pairs.add(new int[] {items[a], items[b]});
+                    pairSupports.add(support);
+                }
+            }
+        }
+        tripleBucketCounts = counter.bucketCounts;
+        return true;
+    }
+
+    /**
+     * The PairCounter holds the pair counts, and the triple bucket counts if hash pruning is on, of one scan over some
+     * of the transactions
+     */
+
+    private class PairCounter {
+        private final int[] items;
+        private final ItemIndex index;
+        private final int[] pairCounts;
+        private final int[] bucketCounts;
+        private int[] ids = new int[16];
+
+        /**
+         * @param items the frequent items in increasing order, items[id] is the item of dense id id
+         * @param index the index giving the dense id of a frequent item
+         */
+
+        PairCounter(int[] items, ItemIndex index) {
+            this.items = items;
+            this.index = index;
+            this.pairCounts = new int[items.length * (items.length - 1) / 2];
+            this.bucketCounts = hashBuckets > 0 ? new int[hashBuckets] : null;
+        }
+
+        /**
+         * This method counts the pairs and hashes the triples of the transactions from to to - 1
+         */
+
+        void count(int from, int to) {
+            int m = items.length;
+            int[] data = transactions.items();
+            for (int t = from; t < to; t++) {
+                if (transactions.length(t) < 2) {
+                    continue;
+                }
+                // dense ids of the frequent items in the transaction, in increasing order since the items are sorted
+                int n = 0;
+                for (int i = transactions.start(t); i < transactions.end(t); i++) {
+                    int id = index.indexOf(data[i]);
+                    if (id >= 0) {
+                        if (n == ids.length) {
+                            ids = Arrays.copyOf(ids, n * 2);
+                        }
+                        ids[n++] = id;
+                    }
+                }
+
+                for (int a = 0; a < n - 1; a++) {
+                    // the pairs of ids[a] start at pairIndex(ids[a], ids[a] + 1, m)
+                    int row = pairIndex(ids[a], ids[a] + 1, m) - ids[a] - 1;
+                    for (int b = a + 1; b < n; b++) {
+                        pairCounts[row + ids[b]]++;
+                    }
+                }
+                if (bucketCounts != null) {
+                    for (int a = 0; a < n - 2; a++) {
+                        for (int b = a + 1; b < n - 1; b++) {
+                            for (int c = b + 1; c < n; c++) {
+                                bucketCounts[tripleBucket(items[ids[a]], items[ids[b]], items[ids[c]])]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * This method adds the counts of another counter over the same frequent items
+         */
+
+        void add(PairCounter other) {
+            for (int i = 0; i < pairCounts.length; i++) {
+                pairCounts[i] += other.pairCounts[i];
+            }
+            if (bucketCounts != null) {
+                for (int i = 0; i < bucketCounts.length; i++) {
+                    bucketCounts[i] += other.bucketCounts[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the pair a < b in the triangular array of m items
+     */
+
+    private static int pairIndex(int a, int b, int m) {
+        return a * (2 * m - a - 1) / 2 + (b - a - 1);
+    }
+
+    private int tripleBucket(int a, int b, int c) {
+        int hash = (a * 31 + b) * 31 + c;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, hashBuckets);
+    }
+
+    /**
+     * @param candidates the trie of candidates
+     * @return the index of every item that appears in at least one candidate
+     */
+
+    private static ItemIndex candidateItems(CandidateTrie candidates) {
+        Set<Integer> items = new HashSet<>();
+        for (int id = 0; id < candidates.size(); id++) {
+            for (int item : candidates.get(id)) {
+                items.add(item);
+            }
+        }
+        int[] sortedItems = new int[items.size()];
+        int i = 0;
+        for (Integer item : items) {
+            sortedItems[i++] = item;
+        }
+        Arrays.sort(sortedItems);
+        return new ItemIndex(sortedItems);
+    }
+
+    /**
+     * This method counts the support of every candidate with one scan over the transactions
+     * @param transactions the transactions to scan
+     * @param candidates the trie of size k+1 candidates
+     * @param k the size of the current frequent itemsets
+     * @return the support counts indexed by candidate id
+     */
+
+    private int[] countSupports(TransactionStore transactions, CandidateTrie candidates, int k) {
+        int[] candidateCounts = new int[candidates.size()];
+        int[] items = transactions.items();
+        for (int t = 0; t < transactions.size(); t++) {
+            if (transactions.length(t) > k) {
+                candidates.count(items, transactions.start(t), transactions.end(t), candidateCounts);
+            }
+        }
+        return candidateCounts;
+    }
+
+    /**
+     * This method counts the support of every candidate with the transactions split across the pool. Each worker
+     * thread counts into its own array, and the arrays are added together once the scan is done.
+     * @param transactions the transactions to scan
+     * @param candidates the trie of size k+1 candidates
+     * @param k the size of the current frequent itemsets
+     * @param pool the pool running the workers
+     * @return the support counts indexed by candidate id
      */
 
-    private Map<Set<Integer>, Integer> createCandidates(List<Set<Integer>> itemsets, int k) {
+    private int[] countSupports(TransactionStore transactions, CandidateTrie candidates, int k, ForkJoinPool pool) {
+        Queue<int[]> workerCounts = new ConcurrentLinkedQueue<>();
+        ThreadLocal<int[]> localCounts = ThreadLocal.withInitial(() -> {
+            int[] counts = new int[candidates.size()];
+            workerCounts.add(counts);
+            return counts;
+        });
+        int grain = Math.max(256, transactions.size() / (parallelism * 8));
+        pool.invoke(new CountTask(transactions, candidates, k, 0, transactions.size(), grain, localCounts));
+
+        int[] candidateCounts = new int[candidates.size()];
+        for (int[] counts : workerCounts) {
+            for (int id = 0; id < counts.length; id++) {
+                candidateCounts[id] += counts[id];
+            }
+        }
+        return candidateCounts;
+    }
+
+    /**
+     * The CountTask counts a range of transactions, splitting it in half until it is small enough to count directly
+     */
+
+    private static class CountTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TransactionStore transactions;
+        private final CandidateTrie candidates;
+        private final int k;
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final ThreadLocal<int[]> localCounts;
+
+        CountTask(TransactionStore transactions, CandidateTrie candidates, int k, int from, int to, int grain,
+                  ThreadLocal<int[]> localCounts) {
+            this.transactions = transactions;
+            this.candidates = candidates;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.localCounts = localCounts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CountTask(transactions, candidates, k, from, mid, grain, localCounts),
+                        new CountTask(transactions, candidates, k, mid, to, grain, localCounts));
+                return;
+            }
+            int[] counts = localCounts.get();
+            int[] items = transactions.items();
+            for (int t = from; t < to; t++) {
+                if (transactions.length(t) > k) {
+                    candidates.count(items, transactions.start(t), transactions.end(t), counts);
+                }
+            }
+        }
+    }
+
+    /**
+     * The PairTask counts the pairs of a range of transactions, splitting it in half until it is small enough to count
+     * directly
+     */
+
+    private static class PairTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final ThreadLocal<PairCounter> localCounters;
+
+        PairTask(int from, int to, int grain, ThreadLocal<PairCounter> localCounters) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.localCounters = localCounters;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PairTask(from, mid, grain, localCounters), new PairTask(mid, to, grain, localCounters));
+                return;
+            }
+            localCounters.get().count(from, to);
+        }
+    }
+
+    /**
+     * This method creates the candidates by joining pairs of size k-1 itemsets that share their first k-2 items. The
+     * itemsets are sorted lexicographically so the itemsets sharing a prefix sit next to each other, and every candidate
+     * is only created once, already in lexicographic order.
+     * @param itemsets the list of size k-1 itemsets, each sorted and the list in lexicographic order
+     * @param k the size of the candidates
+     * @return the trie of the candidates that pass the downward closure check
+     */
+
+    private CandidateTrie createCandidates(List<int[]> itemsets, int k) {
 
         startTime = System.currentTimeMillis();
-        Map<Set<Integer>, Integer> candidates = new HashMap<>();
-        Set<Set<Integer>> nonCandidates = new HashSet<>();
+        CandidateTrie candidates = new CandidateTrie();
         int n = itemsets.size();
 
-        // For each consecutive itemset, look at each following itemset
+        // hashed lookup of the previous level for the subset checks
+        CandidateTrie prevFrequentItemsets = new CandidateTrie();
+        for (int[] itemset : itemsets) {
+            prevFrequentItemsets.add(itemset);
+        }
+
+        // For each itemset, join with the following itemsets that have the same k-2 prefix
         for (int i = 0; i < n - 1; i++) {
+            int[] first = itemsets.get(i);
             for (int j = i + 1; j < n; j++) {
-                Set<Integer> candidate  = new HashSet<>(itemsets.get(i));
-                candidate.addAll(itemsets.get(j));
-                if (candidate.size() == k) {
-                    if (!nonCandidates.contains(candidate) &&
-                            !candidates.containsKey(candidate) &&
-                            checkDownwardClosure(candidate, itemsets)) {
-                        candidates.put(candidate, 0);
-                    } else {
-                        nonCandidates.add(candidate);
-                    }
+                int[] second = itemsets.get(j);
+                if (!Arrays.equals(first, 0, k - 2, second, 0, k - 2)) {
+                    break;
+                }
+                int[] candidate = Arrays.copyOf(first, k);
+                candidate[k - 1] = second[k - 2];
+                if (k == 3 && tripleBucketCounts != null &&
+                        tripleBucketCounts[tripleBucket(candidate[0], candidate[1], candidate[2])] < minSupportCount) {
+                    continue;
+                }
+                if (checkDownwardClosure(candidate, prevFrequentItemsets)) {
+                    candidates.add(candidate);
                 }
             }
         }
@@ -161,20 +569,26 @@ public class APriori {
 
     /**
      * This method checks the downward closure property and ensures that every subset of a potential itemset candidate is
-     * frequent
-     * @param candidate the potential candidate stored in a set
+     * frequent. The two subsets that were joined to make the candidate are frequent already and are not looked up.
+     * @param candidate the potential candidate with its items sorted
      * @param prevFrequentItemSets the size k-1 frequent itemsets
-     * @return
+     * @return true if every size k-1 subset of the candidate is frequent
      */
 
-    public boolean checkDownwardClosure(Set<Integer> candidate, List<Set<Integer>> prevFrequentItemSets) {
-        for (Integer item : candidate) {
-            Set<Integer> subset = new HashSet<>(candidate);
-            subset.remove(item);
-            if (!prevFrequentItemSets.contains(subset)) {
+    public boolean checkDownwardClosure(int[] candidate, CandidateTrie prevFrequentItemSets) {
+        for (int skip = 0; skip < candidate.length - 2; skip++) {
+            if (!prevFrequentItemSets.contains(candidate, skip)) {
                 return false;
             }
         }
         return true;
     }
-}
\ No newline at end of file
+
+    private static Set<Integer> toSet(int[] itemset) {
+        Set<Integer> set = new HashSet<>();
+        for (int item : itemset) {
+            set.add(item);
+        }
+        return set;
+    }
+}
@@ -23,19 +23,22 @@ public class APrioriTest {
 
         for(String inputFile: files) {
             Path transactionPath = Path.of(inputFile);
+
+            // every threshold is answered from one load and one mining run at the lowest threshold
+            double startTime = System.currentTimeMillis();
+            APriori aPriori = new APriori(transactionPath);
+            Map<Double, Map<Set<Integer>, Integer>> sweep = aPriori.runSweep(minFreq);
+            double endTime = System.currentTimeMillis();
+            double time = endTime - startTime;
+
             for (double freq : minFreq) {
                 String filename = outputDir + "/minfreq_" + inputFile +"_"+ freq + ".csv";
                 try (PrintWriter out = new PrintWriter(new FileWriter(filename))) {
-                    out.println("min_freq,time");
-                    double startTime = System.currentTimeMillis();
-
-                    APriori aPriori = new APriori(transactionPath);
-                    Map<Set<Integer>, Integer> frequentItemSets = aPriori.run(freq);
+                    out.println("min_freq,itemsets,sweep_time");
+                    Map<Set<Integer>, Integer> frequentItemSets = sweep.get(freq);
 
-                    double endTime = System.currentTimeMillis();
-                    double time = endTime - startTime;
                     System.out.println("Writing result for minFreq = " + freq + " to " + filename);
-                    out.println(freq + "," + time);
+                    out.println(freq + "," + frequentItemSets.size() + "," + time);
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -0,0 +1,152 @@
+import java.util.*;
+
+/**
+ * The CandidateTrie class is a prefix trie over the candidate itemsets of an Apriori level. Every candidate is stored
+ * as a path of increasing items and the node at the end of the path holds the id of the candidate. Support counting
+ * walks each sorted transaction down the trie, so only the subsets of the transaction that are actually candidates are
+ * visited and the cost depends on the width of the transaction instead of on the number of candidates.
+ */
+
+public class CandidateTrie {
+    private final TrieNode root = new TrieNode();
+    private final List<int[]> candidates = new ArrayList<>();
+
+    /**
+     * A trie node keeps its children in two parallel arrays sorted by item so they can be merged against a sorted
+     * transaction
+     */
+
+    private static class TrieNode {
+        int[] items = new int[2];
+        TrieNode[] children = new TrieNode[2];
+        int childCount;
+        int id = -1; //id of the candidate ending here, -1 if none
+        int minHeight = Integer.MAX_VALUE; //length of the shortest candidate suffix below this node
+
+        TrieNode getChild(int item) {
+            int pos = Arrays.binarySearch(items, 0, childCount, item);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        TrieNode getOrAddChild(int item) {
+            int pos = Arrays.binarySearch(items, 0, childCount, item);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -(pos + 1);
+            if (childCount == items.length) {
+                items = Arrays.copyOf(items, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(items, pos, items, pos + 1, childCount - pos);
+            System.arraycopy(children, pos, children, pos + 1, childCount - pos);
+            TrieNode child = new TrieNode();
+            items[pos] = item;
+            children[pos] = child;
+            childCount++;
+            return child;
+        }
+    }
+
+    /**
+     * This method adds a candidate to the trie and gives it the next id. Adding the same itemset twice returns the id
+     * it already has.
+     * @param candidate the candidate itemset with its items sorted in increasing order
+     * @return the id of the candidate, which is its index in the counts array
+     */
+
+    public int add(int[] candidate) {
+        TrieNode node = root;
+        for (int i = 0; i < candidate.length; i++) {
+            node.minHeight = Math.min(node.minHeight, candidate.length - i);
+            node = node.getOrAddChild(candidate[i]);
+        }
+        if (node.id < 0) {
+            node.id = candidates.size();
+            candidates.add(candidate);
+        }
+        return node.id;
+    }
+
+    /**
+     * @param id the id of a candidate
+     * @return the sorted items of the candidate with that id
+     */
+
+    public int[] get(int id) {
+        return candidates.get(id);
+    }
+
+    /**
+     * This method looks up an itemset in the trie with one of its items left out, so the subsets of a candidate can be
+     * checked without copying them.
+     * @param itemset the sorted itemset
+     * @param skip the index of the item to leave out
+     * @return true if the itemset without the skipped item is in the trie
+     */
+
+    public boolean contains(int[] itemset, int skip) {
+        TrieNode node = root;
+        for (int i = 0; i < itemset.length && node != null; i++) {
+            if (i != skip) {
+                node = node.getChild(itemset[i]);
+            }
+        }
+        return node != null && node.id >= 0;
+    }
+
+    public int size() {
+        return candidates.size();
+    }
+
+    /**
+     * This method counts the candidates contained in one transaction. For each candidate that is a subset of the
+     * transaction the matching entry of the counts array is incremented.
+     * @param transaction the items of the transaction sorted in increasing order
+     * @param from the first index of the transaction in the array
+     * @param to one past the last index of the transaction in the array
+     * @param counts the support counts indexed by candidate id
+     */
+
+    public void count(int[] transaction, int from, int to, int[] counts) {
+        count(root, transaction, from, to, counts);
+    }
+
+    private void count(TrieNode node, int[] transaction, int start, int end, int[] counts) {
+        if (node.id >= 0) {
+            counts[node.id]++;
+        }
+        // the remaining items have to be enough to reach the end of a candidate
+        int last = end - node.minHeight;
+        if (start > last) {
+            return;
+        }
+
+        if (node.childCount > 4 * (last - start + 1)) {
+            // many more children than items left, look each item up
+            for (int i = start; i <= last; i++) {
+                TrieNode child = node.getChild(transaction[i]);
+                if (child != null) {
+                    count(child, transaction, i + 1, end, counts);
+                }
+            }
+        } else {
+            // otherwise merge the sorted children with the sorted items
+            int i = start;
+            int c = 0;
+            while (i <= last && c < node.childCount) {
+                int item = transaction[i];
+                int childItem = node.items[c];
+                if (item < childItem) {
+                    i++;
+                } else if (item > childItem) {
+                    c++;
+                } else {
+                    count(node.children[c], transaction, i + 1, end, counts);
+                    i++;
+                    c++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.*;
+
+/**
+ * The DBoundTracker class computes the d bound one transaction at a time, so it can run over a store that is already
+ * in memory or over a file while it is being streamed. The d bound is the largest size d such that at least d of the
+ * counted transactions have d or more items. The tracker only keeps a min-heap with the lengths that can still raise
+ * the bound and the few transactions used to skip duplicates, so each transaction costs O(log d) and the memory is
+ * bounded by the d bound instead of the dataset.
+ */
+
+public class DBoundTracker {
+    private int dBound = 1;
+    private boolean first = true;
+
+    // lengths of the counted transactions that are longer than the current bound, smallest on top
+    private final PriorityQueue<Integer> longLengths = new PriorityQueue<>();
+    // the first transactions counted, at most dBound of them, used to skip repeated transactions
+    private final Set<ItemsetKey> T = new HashSet<>();
+
+    public DBoundTracker() {
+    }
+
+    private DBoundTracker(DBoundTracker other) {
+        dBound = other.dBound;
+        first = other.first;
+        longLengths.addAll(other.longLengths);
+        T.addAll(other.T);
+    }
+
+    /**
+     * @return a tracker in the same state that can be offered other transactions from here on
+     */
+
+    public DBoundTracker copy() {
+        return new DBoundTracker(this);
+    }
+
+    /**
+     * This method adds one transaction to the d bound. The first transaction is always counted, after that a
+     * transaction is only counted if it is longer than the current bound, is not the set of all items and has not been
+     * kept already.
+     * @param items the array holding the sorted items of the transaction
+     * @param from the first index of the transaction in the array
+     * @param to one past the last index of the transaction in the array
+     * @param distinctItems the number of distinct items in the dataset, a transaction this long holds all of them
+     */
+
+    public void offer(int[] items, int from, int to, int distinctItems) {
+        int length = to - from;
+        if (first) {
+            T.add(new ItemsetKey(items, from, to));
+            count(length);
+            first = false;
+            return;
+        }
+        if (length <= dBound || length == distinctItems) {
+            return;
+        }
+        ItemsetKey transaction = new ItemsetKey(items, from, to);
+        if (T.contains(transaction)) {
+            return;
+        }
+        count(length);
+        if (T.size() < dBound) {
+            T.add(transaction);
+        }
+    }
+
+    /**
+     * This method counts a transaction length and raises the bound while there are more than dBound lengths above it.
+     * Lengths that fall to the bound or below can never raise it again and are dropped from the heap.
+     */
+
+    private void count(int length) {
+        if (length <= dBound) {
+            return;
+        }
+        longLengths.add(length);
+        while (longLengths.size() > dBound) {
+            dBound++;
+            while (!longLengths.isEmpty() && longLengths.peek() <= dBound) {
+                longLengths.poll();
+            }
+        }
+    }
+
+    public int getDBound() {
+        return dBound;
+    }
+
+    /**
+     * The ItemsetKey class copies the items of a transaction and hashes them once so it can be looked up in a set
+     */
+
+    private static final class ItemsetKey {
+        private final int[] items;
+        private final int hash;
+
+        ItemsetKey(int[] source, int from, int to) {
+            items = Arrays.copyOfRange(source, from, to);
+            hash = Arrays.hashCode(items);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ItemsetKey && Arrays.equals(items, ((ItemsetKey) o).items);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -20,25 +20,31 @@ public class Experiments {
 
         for(String inputFile: files) {
             Path transactionPath = Path.of(inputFile);
+
+            // the absolute sample size does not depend on the threshold, so one sample and one mining run at the
+            // lowest threshold answer every threshold (the relative size would need a sample per threshold)
+            double startTime = System.currentTimeMillis();
+            SampledAPriori alg = new SampledAPriori(transactionPath);
+            int dBound = alg.computeDBound();
+            int absSampleSize = alg.computeSampleSizeAbsolute(dBound, 1, 0.1, 0.1);
+            //int relSampleSize = alg.computeSampleSizeRelative(dBound, 1, 0.1, 0.1, freq);
+
+            alg.sample = alg.buildSample(absSampleSize);
+
+            APriori aPriori = new APriori(alg.sample);
+            Map<Double, Map<Set<Integer>, Integer>> sweep = aPriori.runSweep(minFreq);
+
+            double endTime = System.currentTimeMillis();
+            double time = endTime - startTime;
+
             for (double freq : minFreq) {
                 String filename = outputDir + "/minfreq_" + inputFile +"_"+ freq + ".csv";
                 try (PrintWriter out = new PrintWriter(new FileWriter(filename))) {
-                    out.println("min_freq,time");
-                    double startTime = System.currentTimeMillis();
-                    SampledAPriori alg = new SampledAPriori(transactionPath);
-                    int dBound = alg.computeDBound();
-                    int absSampleSize = alg.computeSampleSizeAbsolute(dBound, 1, 0.1, 0.1);
-                    //int relSampleSize = alg.computeSampleSizeRelative(dBound, 1, 0.1, 0.1, freq);
-
-                    alg.sample = alg.buildSample(absSampleSize);
-
-                    APriori aPriori = new APriori(alg.sample);
-                    Map<Set<Integer>, Integer> frequentItemSets = aPriori.run(freq);
+                    out.println("min_freq,itemsets,sweep_time");
+                    Map<Set<Integer>, Integer> frequentItemSets = sweep.get(freq);
 
-                    double endTime = System.currentTimeMillis();
-                    double time = endTime - startTime;
                     System.out.println("Writing result for minFreq = " + freq + " to " + filename);
-                    out.println(freq + "," + time);
+                    out.println(freq + "," + frequentItemSets.size() + "," + time);
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
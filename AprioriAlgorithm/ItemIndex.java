@@ -0,0 +1,60 @@
+import java.util.*;
+
+/**
+ * The ItemIndex class remaps a sorted set of items to the dense ids 0..m-1 in increasing item order. When the items
+ * span a small enough range the ids come from a direct lookup array, otherwise they come from a binary search.
+ */
+
+public class ItemIndex {
+    // largest item range that gets a direct lookup array
+    private static final int MAX_LOOKUP_RANGE = 1 << 24;
+
+    private final int[] items;
+    private final int minItem;
+    private final int[] denseIds;
+
+    /**
+     * @param sortedItems the distinct items in increasing order
+     */
+
+    public ItemIndex(int[] sortedItems) {
+        this.items = sortedItems;
+        int m = sortedItems.length;
+        this.minItem = m > 0 ? sortedItems[0] : 0;
+        if (m > 0 && (long) sortedItems[m - 1] - minItem < MAX_LOOKUP_RANGE) {
+            denseIds = new int[sortedItems[m - 1] - minItem + 1];
+            Arrays.fill(denseIds, -1);
+            for (int i = 0; i < m; i++) {
+                denseIds[sortedItems[i] - minItem] = i;
+            }
+        } else {
+            denseIds = null;
+        }
+    }
+
+    /**
+     * @param item the item to look up
+     * @return the dense id of the item, or -1 if it is not in the index
+     */
+
+    public int indexOf(int item) {
+        if (denseIds != null) {
+            long offset = (long) item - minItem;
+            return offset >= 0 && offset < denseIds.length ? denseIds[(int) offset] : -1;
+        }
+        return Math.max(-1, Arrays.binarySearch(items, item));
+    }
+
+    /**
+     * @param id a dense id
+     * @return the item with that id
+     */
+
+    public int item(int id) {
+        return items[id];
+    }
+
+    public int size() {
+        return items.length;
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The PartitionedAPriori class mines a data file that does not fit in memory with the Partition (SON) algorithm. The
+ * file is read in partitions that fit in a memory budget and Apriori finds the locally frequent itemsets of each
+ * partition at the same relative threshold. An itemset that is frequent in the whole file is frequent in at least one
+ * partition, so the union of the local results holds every answer. A second pass streams the file again to count the
+ * exact support of that union, and the result is the same map the in-memory APriori.run returns.
+ *
+ * The number of partitions comes from the size of the file, and the file is cut into that many pieces of about the
+ * same number of bytes, so no partition is much smaller than the others.
+ */
+
+public class PartitionedAPriori {
+    // below this local support count a partition finds most of its subsets frequent, a warning is printed
+    private static final int MIN_LOCAL_SUPPORT_COUNT = 10;
+
+    private final Path path;
+    private final long memoryBudget;
+    private int transactionCount;
+
+    /**
+     * @param path the Path to the corresponding file
+     * @param memoryBudget the most bytes the transactions of one partition may take on the heap
+     */
+
+    public PartitionedAPriori(Path path, long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memory budget must be positive");
+        }
+        this.path = path;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * This method runs both passes over the file and returns the frequent itemsets with their exact supports
+     * @param minimumSupport the minimum support as a fraction of the transactions
+     * @return the map of frequent itemsets to their support
+     */
+
+    public Map<Set<Integer>, Integer> run(double minimumSupport) {
+        Map<Set<Integer>, Integer> frequentItemsets = new HashMap<>();
+        try {
+            CandidateTrie candidates = findLocalItemsets(minimumSupport);
+            System.out.println(candidates.size() + " candidate itemsets from the partitions");
+
+            int[] counts = countCandidates(candidates);
+            int minSupportCount = (int) Math.ceil(minimumSupport * transactionCount);
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] >= minSupportCount) {
+                    Set<Integer> itemset = new HashSet<>();
+                    for (int item : candidates.get(id)) {
+                        itemset.add(item);
+                    }
+                    frequentItemsets.put(itemset, counts[id]);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return frequentItemsets;
+    }
+
+    /**
+     * @return the number of transactions in the file, known once run has read it
+     */
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * This is the first pass. The file is split into partitions of about the same number of bytes, as few as fit in
+     * the budget, and each partition is mined, its locally frequent itemsets kept and the partition dropped before
+     * reading the next one.
+     * @param minimumSupport the minimum support as a fraction of the transactions
+     * @return the trie holding the union of the locally frequent itemsets
+     * @throws IOException if the file cannot be read
+     */
+
+    private CandidateTrie findLocalItemsets(double minimumSupport) throws IOException {
+        // a TransactionStore takes 4 bytes per item and per transaction, and an item takes at least a digit and a
+        // separator in the file, so the store is at most about twice the size of the file
+        long fileSize = Files.size(path);
+        long partitions = Math.max(1, (2 * fileSize + memoryBudget - 1) / memoryBudget);
+
+        CandidateTrie candidates = new CandidateTrie();
+        transactionCount = 0;
+        int mined = 0;
+        boolean warned = false;
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            TransactionStore.LineParser parser = new TransactionStore.LineParser();
+            long read = 0;
+            String line = br.readLine();
+            for (long k = 0; k < partitions && line != null; k++) {
+                // partition k ends with the line that reaches (k + 1) / p of the file, the last one takes the rest
+                long end = k == partitions - 1 ? Long.MAX_VALUE : (k + 1) * fileSize / partitions;
+                TransactionStore partition = new TransactionStore();
+                while (line != null && (read < end || partition.size() == 0)) {
+                    partition.add(parser.buffer(), parser.parse(line));
+                    read += line.length() + 1;
+                    line = br.readLine();
+                }
+                transactionCount += partition.size();
+
+                if (!warned && minimumSupport * partition.size() < MIN_LOCAL_SUPPORT_COUNT) {
+                    System.out.println("Warning: a partition of " + partition.size() + " transactions is mined at a "
+                            + "local support count of " + (int) Math.ceil(minimumSupport * partition.size())
+                            + ", a larger memory budget gives fewer candidates");
+                    warned = true;
+                }
+                mineLocally(partition, minimumSupport, candidates);
+                mined++;
+            }
+        }
+        System.out.println("Read " + transactionCount + " transactions in " + mined + " partitions");
+        return candidates;
+    }
+
+    private void mineLocally(TransactionStore partition, double minimumSupport, CandidateTrie candidates) {
+        Map<Set<Integer>, Integer> localItemsets = new APriori(partition).run(minimumSupport);
+        for (Set<Integer> itemset : localItemsets.keySet()) {
+            int[] items = new int[itemset.size()];
+            int i = 0;
+            for (Integer item : itemset) {
+                items[i++] = item;
+            }
+            Arrays.sort(items);
+            candidates.add(items);
+        }
+    }
+
+    /**
+     * This is the second pass. Every transaction is parsed, sorted and walked down the candidate trie one line at a
+     * time, so only the candidates and their counts are kept in memory.
+     * @param candidates the trie holding the union of the locally frequent itemsets
+     * @return the exact support counts indexed by candidate id
+     * @throws IOException if the file cannot be read
+     */
+
+    private int[] countCandidates(CandidateTrie candidates) throws IOException {
+        int[] counts = new int[candidates.size()];
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            TransactionStore.LineParser parser = new TransactionStore.LineParser();
+            String line;
+            while ((line = br.readLine()) != null) {
+                int length = parser.parse(line);
+                int[] items = parser.buffer();
+                Arrays.sort(items, 0, length);
+
+                // drop repeated items
+                int end = 0;
+                for (int i = 0; i < length; i++) {
+                    if (end == 0 || items[i] != items[end - 1]) {
+                        items[end++] = items[i];
+                    }
+                }
+                candidates.count(items, 0, end, counts);
+            }
+        }
+        return counts;
+    }
+}
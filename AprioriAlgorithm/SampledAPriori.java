@@ -14,32 +14,143 @@ import java.util.*;
 
 public class SampledAPriori {
 
-    Set<Integer> I = new HashSet<>();
-    public List<Set<Integer>> transactions;
-    List<Set<Integer>> sample;
+    int distinctItems;
+    int transactionCount;
+    public TransactionStore transactions;
+    TransactionStore sample;
+
+    // set when the file was streamed instead of loaded
+    TransactionStore reservoir;
+    int streamedDBound;
 
     /**
-     * THe SampledAPriori constructor takes in a path to the dataset and creates a list of sets to store the stranactions.
+     * THe SampledAPriori constructor takes in a path to the dataset and creates a store to hold the stranactions.
      * @param path the Path to the corresponding file
      */
 
     public SampledAPriori(Path path) {
-        transactions = new ArrayList<>();
+        transactions = new TransactionStore();
+        try {
+            transactions = TransactionStore.read(path);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        distinctItems = transactions.countItems().size();
+        transactionCount = transactions.size();
+    }
+
+    /**
+     * This constructor streams the dataset once instead of loading it. The d bound is computed while the file is read
+     * and a reservoir of at most sampleCapacity transactions is kept with Vitter's Algorithm L, which draws the gap to
+     * the next replaced transaction instead of a random number for every line. Only the reservoir is kept on the heap,
+     * and buildSample draws the final sample from it.
+     *
+     * The d bound leaves out the transactions holding every item of the dataset, which is only known at the end of the
+     * file. A line holding every item read so far is the only set that can still turn out to be all the items, so the
+     * bound is tracked twice from that line on, once counting its copies and once leaving them out. A later line with
+     * a new item settles it, and the end of the file settles the last one, so the bound is the one computeDBound gives
+     * on the loaded file.
+     * @param path the Path to the corresponding file
+     * @param sampleCapacity the most transactions to keep in the reservoir
+     */
+
+    public SampledAPriori(Path path, int sampleCapacity) {
+        if (sampleCapacity < 1) {
+            throw new IllegalArgumentException("sample capacity must be at least 1");
+        }
+        int[][] slots = new int[sampleCapacity][];
+        Random random = new Random();
+        // tracker counts every line, withoutAll leaves out the copies of the line holding every item read so far
+        DBoundTracker tracker = new DBoundTracker();
+        DBoundTracker withoutAll = null;
+        BitSet seenItems = new BitSet();
+        Set<Integer> seenNegativeItems = new HashSet<>();
+        int distinct = 0;
+
+        // Algorithm L state, next is the 1-based position of the next transaction to go in the reservoir
+        double w = Math.exp(Math.log(random.nextDouble()) / sampleCapacity);
+        long next = sampleCapacity + skip(random, w) + 1;
+
+        transactionCount = 0;
         try(BufferedReader br = Files.newBufferedReader(path)) {
+            TransactionStore.LineParser parser = new TransactionStore.LineParser();
             String line;
             while ((line = br.readLine()) != null) {
-                String[] lineSplit = line.split(" ");
-                Set<Integer> transaction = new HashSet<>();
-                for (String stringItem : lineSplit) {
-                    int item = Integer.parseInt(stringItem);
-                    I.add(item);
-                    transaction.add(item);
+                int length = sortDistinct(parser.buffer(), parser.parse(line));
+                int[] items = parser.buffer();
+                transactionCount++;
+
+                int before = distinct;
+                for (int i = 0; i < length; i++) {
+                    if (items[i] >= 0) {
+                        if (!seenItems.get(items[i])) {
+                            seenItems.set(items[i]);
+                            distinct++;
+                        }
+                    } else if (seenNegativeItems.add(items[i])) {
+                        distinct++;
+                    }
+                }
+                if (distinct > before) {
+                    // the last line holding every item was not all the items after all, its copies count
+                    withoutAll = null;
+                }
+                if (length == distinct && withoutAll == null) {
+                    // a new line holding every item read so far, the first line is counted either way
+                    if (transactionCount == 1) {
+                        tracker.offer(items, 0, length, -1);
+                        withoutAll = tracker.copy();
+                    } else {
+                        withoutAll = tracker.copy();
+                        tracker.offer(items, 0, length, -1);
+                    }
+                } else {
+                    tracker.offer(items, 0, length, -1);
+                    if (withoutAll != null && length < distinct) {
+                        withoutAll.offer(items, 0, length, -1);
+                    }
+                }
+
+                if (transactionCount <= sampleCapacity) {
+                    slots[transactionCount - 1] = Arrays.copyOf(items, length);
+                } else if (transactionCount == next) {
+                    slots[random.nextInt(sampleCapacity)] = Arrays.copyOf(items, length);
+                    w *= Math.exp(Math.log(random.nextDouble()) / sampleCapacity);
+                    next += skip(random, w) + 1;
                 }
-                transactions.add(transaction);
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
+
+        distinctItems = distinct;
+        // still set if no item came after the last line holding every item, so that line was all the items
+        streamedDBound = (withoutAll != null ? withoutAll : tracker).getDBound();
+        int kept = Math.min(sampleCapacity, transactionCount);
+        reservoir = new TransactionStore(kept, 16 * kept);
+        for (int i = 0; i < kept; i++) {
+            reservoir.add(slots[i], slots[i].length);
+        }
+        reservoir.trimToSize();
+    }
+
+    /**
+     * @return the number of transactions Algorithm L passes over before the next one goes in the reservoir
+     */
+
+    private static long skip(Random random, double w) {
+        return (long) Math.floor(Math.log(random.nextDouble()) / Math.log(1 - w));
+    }
+
+    private static int sortDistinct(int[] items, int length) {
+        Arrays.sort(items, 0, length);
+        int end = 0;
+        for (int i = 0; i < length; i++) {
+            if (end == 0 || items[i] != items[end - 1]) {
+                items[end++] = items[i];
+            }
+        }
+        return end;
     }
 
     /**
@@ -49,64 +160,15 @@ public class SampledAPriori {
      */
 
     public int computeDBound() {
-        int dBound = 1;
-        Set<Set<Integer>> seen = new HashSet<>();
-
-        // a custom comparator used to compare the of the sets and can break ties lexicographically
-        Comparator<Set<Integer>> bySizeThenLex = (a, b) -> {
-            int cmp = Integer.compare(a.size(), b.size());
-            if (cmp != 0) return cmp;
-
-            // optional: break ties lexicographically
-            Iterator<Integer> itA = a.iterator(), itB = b.iterator();
-            while (itA.hasNext() && itB.hasNext()) {
-                int x = itA.next(), y = itB.next();
-                if (x != y) return Integer.compare(x, y);
-            }
-            return 0;
-        };
-        SortedSet<Set<Integer>> R;
-
-        Set<Integer> t = transactions.get(0);
-        seen.add(t);
-        Set<Set<Integer>> T = new HashSet<>();
-        T.add(t);
-        Map<Integer, Integer> countByLength = new HashMap<>();
-        countByLength.merge(t.size(), 1, (a,b) -> a + b);
-
-        //iterates through the transactions and add valid transactions
-        for (Set<Integer> transaction : transactions) {
-            if (transaction.size() > dBound && !transaction.equals(I) && !T.contains(transaction)) {
-                R = new TreeSet<>(bySizeThenLex);
-                R.addAll(T);
-                R.add(transaction);
-                countByLength.merge(transaction.size(), 1, (a,b) -> a + b);
-
-                int maxLength = 0;
-                for (int len : countByLength.keySet()) {
-                    maxLength = Math.max(maxLength, len);
-                }
-
-                // returns the d bound as the largest transaction size such that there are at least the size worth's of
-                // transactions are greater than that size.
-                int totalCount = 0;
-                for (int i = maxLength; maxLength > 0; i--) {
-                    int lengthCount = countByLength.getOrDefault(i, 0);
-
-                    if (lengthCount + totalCount >= i) {
-                        dBound = i;
-                        break;
-                    }
-                    totalCount = totalCount + lengthCount;
-                }
-
-                Iterator<Set<Integer>> descIt = ((TreeSet<Set<Integer>>) R).descendingIterator();
-                while (descIt.hasNext() && T.size() < dBound) {
-                    T.add(descIt.next());
-                }
-            }
+        if (transactions == null) {
+            return streamedDBound;
+        }
+        DBoundTracker tracker = new DBoundTracker();
+        int[] items = transactions.items();
+        for (int t = 0; t < transactions.size(); t++) {
+            tracker.offer(items, transactions.start(t), transactions.end(t), distinctItems);
         }
-        return dBound;
+        return tracker.getDBound();
     }
 
     /**
@@ -120,7 +182,7 @@ public class SampledAPriori {
 
     public int computeSampleSizeAbsolute(int dBound, int C, double eps, double delta) {
         double formula = ((4*C) / Math.pow(eps, 2)) * (dBound + Math.log(1 / delta));
-        return Math.min(transactions.size(), (int) Math.ceil(formula));
+        return Math.min(transactionCount, (int) Math.ceil(formula));
     }
 
     /**
@@ -135,23 +197,39 @@ public class SampledAPriori {
     public int computeSampleSizeRelative(int dBound, int C, double eps, double delta, double minSupport) {
         double formula = ((4*(2+eps)*C) / (Math.pow(eps, 2)) * minSupport * (2-eps))
                 * ((dBound * Math.log((2+eps)/(minSupport*(2-eps)))) + Math.log(1 / delta));
-        return Math.min(transactions.size(), (int) Math.ceil(formula));
+        return Math.min(transactionCount, (int) Math.ceil(formula));
     }
 
     /**
      * This method builds the reservoir sample with a given sample size
      * @param sampleSize the size of the desired reservoir sample
-     * @return a list of transactions, with each transaction stored in a set
+     * @return a store holding the sampled transactions
      */
 
-    public List<Set<Integer>> buildSample(int sampleSize) {
-        if (sampleSize >= transactions.size()) {
-            return transactions;
+    public TransactionStore buildSample(int sampleSize) {
+        // a streamed file samples from the reservoir, a uniform subset of a uniform sample is still uniform
+        TransactionStore source = transactions != null ? transactions : reservoir;
+        if (transactions == null && sampleSize > reservoir.size() && reservoir.size() < transactionCount) {
+            System.out.println("Sample size " + sampleSize + " is larger than the reservoir, using "
+                    + reservoir.size() + " transactions");
+        }
+        if (sampleSize >= source.size()) {
+            return source;
         }
 
-        List<Set<Integer>> copy = new ArrayList<>(transactions);
-        Collections.shuffle(copy, new Random());
-        return copy.subList(0, sampleSize);
+        // partial Fisher-Yates shuffle of the transaction ids, only the first sampleSize positions are drawn
+        int[] ids = new int[source.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        Random random = new Random();
+        for (int i = 0; i < sampleSize; i++) {
+            int j = i + random.nextInt(ids.length - i);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return source.subset(ids, sampleSize);
     }
 
     public static void main(String args[]) {
@@ -163,7 +241,10 @@ public class SampledAPriori {
 
         double startTime = System.currentTimeMillis();
 
-        SampledAPriori alg = new SampledAPriori(transactionPath);
+        // stream the file and keep at most this many transactions, the reservoir is cut down to the sample size
+        int sampleCapacity = 200000;
+        SampledAPriori alg = new SampledAPriori(transactionPath, sampleCapacity);
+        //SampledAPriori alg = new SampledAPriori(transactionPath);
         int dBound = alg.computeDBound();
         System.out.println("D-Bound = " + dBound);
         int absSampleSize = alg.computeSampleSizeAbsolute(dBound, 1, 0.1, 0.1);
@@ -0,0 +1,285 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The TransactionStore class keeps a transaction database as primitive ints in a compressed sparse row layout. The
+ * items of every transaction are sorted and packed back to back in one array, and a second array holds the offset
+ * where each transaction starts. This takes a few bytes per item instead of a boxed HashSet entry and lets the
+ * transactions be scanned in order through contiguous memory.
+ */
+
+public class TransactionStore {
+    private int[] items;
+    private int[] offsets;
+    private int size;
+
+    public TransactionStore() {
+        this(16, 64);
+    }
+
+    /**
+     * @param transactionCapacity the number of transactions to make room for
+     * @param itemCapacity the total number of items to make room for
+     */
+
+    public TransactionStore(int transactionCapacity, int itemCapacity) {
+        items = new int[Math.max(itemCapacity, 1)];
+        offsets = new int[Math.max(transactionCapacity, 1) + 1];
+        size = 0;
+    }
+
+    /**
+     * This method reads a data file with one transaction per line and the items separated by spaces
+     * @param path the Path to the corresponding file
+     * @return the store holding every transaction of the file
+     * @throws IOException if the file cannot be read
+     */
+
+    public static TransactionStore read(Path path) throws IOException {
+        TransactionStore store = new TransactionStore();
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            LineParser parser = new LineParser();
+            String line;
+            while ((line = br.readLine()) != null) {
+                int length = parser.parse(line);
+                store.add(parser.buffer(), length);
+            }
+        }
+        store.trimToSize();
+        return store;
+    }
+
+    /**
+     * The LineParser reads the items of a line into a reusable buffer without splitting the string
+     */
+
+    public static class LineParser {
+        int[] buffer = new int[64];
+
+        /**
+         * @param line the line of the data file
+         * @return the number of items parsed into the buffer
+         */
+
+        public int parse(String line) {
+            int count = 0;
+            int i = 0;
+            int n = line.length();
+            while (i < n) {
+                char c = line.charAt(i);
+                if (c == ' ' || c == '\t' || c == ',') {
+                    i++;
+                    continue;
+                }
+                boolean negative = c == '-';
+                if (negative) {
+                    i++;
+                }
+                int value = 0;
+                int digitsStart = i;
+                while (i < n && (c = line.charAt(i)) >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    i++;
+                }
+                if (i == digitsStart || (i < n && c != ' ' && c != '\t' && c != ',')) {
+                    throw new NumberFormatException("For input string: \"" + line + "\"");
+                }
+                if (count == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffer[count++] = negative ? -value : value;
+            }
+            return count;
+        }
+
+        public int[] buffer() {
+            return buffer;
+        }
+    }
+
+    /**
+     * This method builds a store out of transactions that are already in memory as sets
+     * @param transactions the list of transactions
+     * @return the store holding the same transactions in the same order
+     */
+
+    public static TransactionStore fromSets(List<Set<Integer>> transactions) {
+        int itemCount = 0;
+        for (Set<Integer> transaction : transactions) {
+            itemCount += transaction.size();
+        }
+        TransactionStore store = new TransactionStore(transactions.size(), itemCount);
+        int[] buffer = new int[16];
+        for (Set<Integer> transaction : transactions) {
+            if (transaction.size() > buffer.length) {
+                buffer = new int[transaction.size()];
+            }
+            int i = 0;
+            for (Integer item : transaction) {
+                buffer[i++] = item;
+            }
+            store.add(buffer, i);
+        }
+        return store;
+    }
+
+    /**
+     * This method appends a transaction to the store. The items are copied, sorted and duplicates are removed, so the
+     * buffer can be reused by the caller.
+     * @param transaction the buffer holding the items
+     * @param length the number of items in the buffer
+     */
+
+    public void add(int[] transaction, int length) {
+        int start = offsets[size];
+        ensureCapacity(start + length);
+        System.arraycopy(transaction, 0, items, start, length);
+        Arrays.sort(items, start, start + length);
+
+        // drop repeated items
+        int end = start;
+        for (int i = start; i < start + length; i++) {
+            if (end == start || items[i] != items[end - 1]) {
+                items[end++] = items[i];
+            }
+        }
+
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        size++;
+        offsets[size] = end;
+    }
+
+    /**
+     * This method appends a transaction of another store, which is already sorted
+     * @param other the store to copy from
+     * @param t the index of the transaction in the other store
+     */
+
+    public void add(TransactionStore other, int t) {
+        int length = other.length(t);
+        int start = offsets[size];
+        ensureCapacity(start + length);
+        System.arraycopy(other.items, other.offsets[t], items, start, length);
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        size++;
+        offsets[size] = start + length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > items.length) {
+            items = Arrays.copyOf(items, Math.max(capacity, items.length * 2));
+        }
+    }
+
+    /**
+     * This method shrinks the backing arrays to the data once the store is fully loaded
+     */
+
+    public void trimToSize() {
+        items = Arrays.copyOf(items, offsets[size]);
+        offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the total number of items over all transactions
+     */
+
+    public int itemCount() {
+        return offsets[size];
+    }
+
+    /**
+     * @return the backing array of items, to be read between start(t) and end(t)
+     */
+
+    public int[] items() {
+        return items;
+    }
+
+    public int start(int t) {
+        return offsets[t];
+    }
+
+    public int end(int t) {
+        return offsets[t + 1];
+    }
+
+    public int length(int t) {
+        return offsets[t + 1] - offsets[t];
+    }
+
+    /**
+     * This method counts the support of every item in the store
+     * @return a map from each item to the number of transactions containing it
+     */
+
+    public Map<Integer, Integer> countItems() {
+        Map<Integer, Integer> itemSupports = new HashMap<>();
+        for (int i = 0; i < offsets[size]; i++) {
+            itemSupports.merge(items[i], 1, (a,b) -> a + b);
+        }
+        return itemSupports;
+    }
+
+    /**
+     * This method makes a new store holding only the kept items of each transaction, and only the transactions that
+     * still have at least minLength items after that
+     * @param keep the index of the items to keep
+     * @param minLength the fewest items a transaction needs to be kept
+     * @return the new, trimmed store
+     */
+
+    public TransactionStore filter(ItemIndex keep, int minLength) {
+        TransactionStore filtered = new TransactionStore(size, offsets[size]);
+        int[] buffer = new int[16];
+        for (int t = 0; t < size; t++) {
+            if (length(t) < minLength) {
+                continue;
+            }
+            int n = 0;
+            for (int i = offsets[t]; i < offsets[t + 1]; i++) {
+                if (keep.indexOf(items[i]) >= 0) {
+                    if (n == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, n * 2);
+                    }
+                    buffer[n++] = items[i];
+                }
+            }
+            if (n >= minLength) {
+                filtered.add(buffer, n);
+            }
+        }
+        filtered.trimToSize();
+        return filtered;
+    }
+
+    /**
+     * This method makes a new store out of some of the transactions of this one
+     * @param ids the indexes of the transactions to copy
+     * @param count the number of indexes to use from the front of the array
+     * @return the new store with the transactions in the order of the indexes
+     */
+
+    public TransactionStore subset(int[] ids, int count) {
+        int itemCount = 0;
+        for (int i = 0; i < count; i++) {
+            itemCount += length(ids[i]);
+        }
+        TransactionStore subset = new TransactionStore(count, itemCount);
+        for (int i = 0; i < count; i++) {
+            subset.add(this, ids[i]);
+        }
+        return subset;
+    }
+}
@@ -0,0 +1,412 @@
+import java.util.*;
+
+/**
+ * The CompressedBitmap class is a compressed set of non-negative ints laid out like a Roaring bitmap. The values are
+ * split into chunks of 2^16 by their high 16 bits, and each chunk that has values gets a container: a sorted array of
+ * the low 16 bits when the chunk holds at most 4096 values, or a plain 1024-word bitmap when it holds more. Empty chunks
+ * take no space, so a sparse tidset or diffset costs about two bytes per value instead of a bit for every transaction
+ * up to the largest one.
+ *
+ * Containers are never changed once a bitmap is built. The set operations make new containers only for the chunks
+ * they change and share the rest, which keeps them light on allocation.
+ */
+
+public class CompressedBitmap {
+    private static final int ARRAY_MAX = 4096; // most values an array container holds
+    private static final int WORDS = 1024; // longs in a bitmap container
+
+    private char[] keys;
+    private Container[] containers;
+    private int size; // number of containers in use
+
+    public CompressedBitmap() {
+        this(4);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new char[Math.max(capacity, 1)];
+        containers = new Container[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * This method adds a value while the bitmap is being built. Values have to come in increasing order, a value equal
+     * to the last one is ignored.
+     * @param value the value to add
+     * @return true if the value was not already the last one
+     */
+
+    public boolean add(int value) {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        if (size == 0 || keys[size - 1] != key) {
+            if (size > 0 && keys[size - 1] > key) {
+                throw new IllegalArgumentException("values have to be added in increasing order");
+            }
+            append(key, new ArrayContainer(new char[4], 0));
+        }
+        int before = containers[size - 1].cardinality;
+        containers[size - 1] = containers[size - 1].append(low);
+        return containers[size - 1].cardinality > before;
+    }
+
+    private void append(char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        keys[size] = key;
+        containers[size] = container;
+        size++;
+    }
+
+    /**
+     * @param other the bitmap to intersect with
+     * @return a new bitmap with the values in both
+     */
+
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(Math.min(size, other.size));
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container != null) {
+                    result.append(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other the bitmap to remove
+     * @return a new bitmap with the values of this one that are not in other
+     */
+
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(size);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = containers[i];
+            if (j < other.size && other.keys[j] == keys[i]) {
+                container = container.andNot(other.containers[j]);
+            }
+            if (container != null) {
+                result.append(keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other the bitmap to remove
+     * @return the number of values of this bitmap that are not in other, without building the difference
+     */
+
+    public int andNotCardinality(CompressedBitmap other) {
+        return andNotCardinality(other, Integer.MAX_VALUE);
+    }
+
+    /**
+     * This method counts the values of this bitmap that are not in other, and stops as soon as the count is known to
+     * be over the limit. That is the check for a join, with diffsets |d(PB) \ d(PA)| and with tidsets |t(PA) \ t(PB)|
+     * is what PAB loses from the support of PA, so once it is over support(PA) - minSupport PAB is not frequent and
+     * the rest of the count is not needed.
+     * @param other the bitmap to remove
+     * @param limit the largest count the caller is interested in
+     * @return the number of values of this bitmap that are not in other if it is at most limit, else some number
+     * over limit
+     */
+
+    public int andNotCardinality(CompressedBitmap other, int limit) {
+        int cardinality = 0;
+        int j = 0;
+        for (int i = 0; i < size && cardinality <= limit; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                cardinality += containers[i].andNotCardinality(other.containers[j], limit - cardinality);
+            } else {
+                cardinality += containers[i].cardinality;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * The scratch buffers of a thread. Results are worked out in them and copied out at their final size, so a
+     * container that ends up smaller, or turns into an array container, does not cost a full size array first.
+     */
+
+    private static final class Scratch {
+        final char[] values = new char[ARRAY_MAX];
+        final long[] words = new long[WORDS];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * A container holds the low 16 bits of the values of one chunk
+     */
+
+    private abstract static class Container {
+        int cardinality;
+
+        // only used while building, may return a new container
+        abstract Container append(char value);
+
+        // the results are null when they would be empty
+        abstract Container and(Container other);
+
+        abstract Container andNot(Container other);
+
+        // the exact count if it is at most limit, else some number over limit
+        abstract int andNotCardinality(Container other, int limit);
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values; // sorted
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        // copies the first cardinality values of a scratch buffer
+        static Container copyOf(char[] scratch, int cardinality) {
+            return cardinality == 0 ? null : new ArrayContainer(Arrays.copyOf(scratch, cardinality), cardinality);
+        }
+
+        @Override
+        Container append(char value) {
+            if (cardinality > 0 && values[cardinality - 1] == value) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                for (int i = 0; i < cardinality; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                words[value >>> 6] |= 1L << value;
+                return new BitmapContainer(words, cardinality + 1);
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            values[cardinality++] = value;
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = SCRATCH.get().values;
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                char[] otherValues = ((ArrayContainer) other).values;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    if (values[i] < otherValues[j]) {
+                        i++;
+                    } else if (values[i] > otherValues[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                long[] words = ((BitmapContainer) other).words;
+                for (int i = 0; i < cardinality; i++) {
+                    if ((words[values[i] >>> 6] & (1L << values[i])) != 0) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            if (count == cardinality) {
+                return this;
+            }
+            return copyOf(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = SCRATCH.get().values;
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                char[] otherValues = ((ArrayContainer) other).values;
+                int j = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    while (j < other.cardinality && otherValues[j] < values[i]) {
+                        j++;
+                    }
+                    if (j == other.cardinality || otherValues[j] != values[i]) {
+                        result[count++] = values[i];
+                    }
+                }
+            } else {
+                long[] words = ((BitmapContainer) other).words;
+                for (int i = 0; i < cardinality; i++) {
+                    if ((words[values[i] >>> 6] & (1L << values[i])) == 0) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            if (count == cardinality) {
+                return this;
+            }
+            return copyOf(result, count);
+        }
+
+        @Override
+        int andNotCardinality(Container other, int limit) {
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                char[] otherValues = ((ArrayContainer) other).values;
+                int j = 0;
+                for (int i = 0; i < cardinality && count <= limit; i++) {
+                    while (j < other.cardinality && otherValues[j] < values[i]) {
+                        j++;
+                    }
+                    if (j == other.cardinality || otherValues[j] != values[i]) {
+                        count++;
+                    }
+                }
+            } else {
+                long[] words = ((BitmapContainer) other).words;
+                for (int i = 0; i < cardinality && count <= limit; i++) {
+                    if ((words[values[i] >>> 6] & (1L << values[i])) == 0) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private static final int BLOCK = 64; // words counted between two checks of the limit
+
+        final long[] words;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        // builds the container of a scratch result, small results go back to an array container
+        static Container copyOf(long[] scratch, int cardinality) {
+            if (cardinality == 0) {
+                return null;
+            }
+            if (cardinality > ARRAY_MAX) {
+                return new BitmapContainer(scratch.clone(), cardinality);
+            }
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = scratch[w];
+                while (word != 0) {
+                    values[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        Container append(char value) {
+            if ((words[value >>> 6] & (1L << value)) == 0) {
+                words[value >>> 6] |= 1L << value;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = SCRATCH.get().words;
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                result[w] = words[w] & otherWords[w];
+                count += Long.bitCount(result[w]);
+            }
+            if (count == cardinality) {
+                return this;
+            }
+            return copyOf(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = SCRATCH.get().words;
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                System.arraycopy(words, 0, result, 0, WORDS);
+                count = cardinality;
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    long bit = 1L << value;
+                    if ((result[value >>> 6] & bit) != 0) {
+                        result[value >>> 6] &= ~bit;
+                        count--;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] = words[w] & ~otherWords[w];
+                    count += Long.bitCount(result[w]);
+                }
+            }
+            if (count == cardinality) {
+                return this;
+            }
+            return copyOf(result, count);
+        }
+
+        @Override
+        int andNotCardinality(Container other, int limit) {
+            if (other instanceof ArrayContainer) {
+                // every value of the array not found here could still lower the count by one
+                ArrayContainer array = (ArrayContainer) other;
+                int count = cardinality;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    if ((words[value >>> 6] & (1L << value)) != 0) {
+                        count--;
+                    } else if (count - (array.cardinality - i - 1) > limit) {
+                        break;
+                    }
+                }
+                return count;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int block = 0; block < WORDS && count <= limit; block += BLOCK) {
+                for (int w = block; w < block + BLOCK; w++) {
+                    count += Long.bitCount(words[w] & ~otherWords[w]);
+                }
+            }
+            return count;
+        }
+    }
+}
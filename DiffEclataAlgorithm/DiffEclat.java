@@ -1,10 +1,10 @@
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.FileWriter;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * This is the Diffset Eclat Algorithm. This method creates a frequent itemset tree and uses the differences in size
@@ -14,6 +14,8 @@ import java.util.*;
  */
 
 public class DiffEclat {
+    // an equivalence class with at least this many itemsets is mined as its own task in the parallel mode
+    private static final int PARALLEL_CUTOFF = 8;
 
     private List<SortedSet<Integer>> transactions;
     private double minSup;
@@ -22,6 +24,7 @@ public class DiffEclat {
     private int setSize;
     private double startTime;
     private double endTime;
+    private int parallelism = 1;
 
     public DiffEclat() {
         System.out.println("STARTING DIFF-ECLAT");
@@ -37,101 +40,22 @@ public class DiffEclat {
     }
 
     /**
-     * This method generates the frequent items with its corresponding support and creates the diffsets corresponding
-     * to each item. Then it adds all of the frequent items to the DiffEclat tree with its support and diffset.
-     * @param minimumSupport the minimum threshould
-     * @return the DiffEclat tree
+     * This method sets how many worker threads mine the equivalence classes. With more than one worker every class
+     * big enough is mined as its own task on a ForkJoinPool, and the itemsets found are put in the tree in the order
+     * the sequential run finds them, so the tree is the same.
+     * @param workers the number of worker threads, 1 mines on the calling thread
      */
 
-    public DiffEclatTree run2(double minimumSupport) {
-        System.out.println("- Run new support threshold");
-        minSup = minimumSupport;
-
-        System.out.println("    " + "- Count supports");
-        // For each transaction (line) in dataset count item support
-        Map<Integer, Integer> itemSupports = new HashMap<>();
-        setSize = 0;
-        try(BufferedReader br = Files.newBufferedReader(transactionPath)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] lineSplit = line.split(" ");
-                for (String stringItem : lineSplit) {
-                    int item = Integer.parseInt(stringItem);
-                    itemSupports.merge(item, 1, (a,b) -> a + b);
-                }
-                setSize++;
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        System.out.println("    " + "- Determine frequent items");
-        // Determine frequent items
-        Map<Integer, Integer> frequentItemSupports = new HashMap<>();
-        minSupCount = (int) Math.ceil(minSup * setSize);
-        for (Map.Entry<Integer, Integer> entry : itemSupports.entrySet()) {
-            if (entry.getValue() >= minSupCount) {
-                frequentItemSupports.put(entry.getKey(), entry.getValue());
-            }
-        }
-        // Clear outdated hashmap to save space
-        itemSupports = new HashMap<>();
-
-        System.out.println("    " + "- Create diffsets for frequent items");
-        // Create diffsets for frequent items
-        Map<Integer, BitSet> itemDiffs = new HashMap<>();
-        HashSet<Integer> transaction;
-        int transactionLine = 0;
-        try(BufferedReader br = Files.newBufferedReader(transactionPath)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-
-                // Convert transaction string to hashset
-                String[] lineSplit = line.split(" ");
-                transaction = new HashSet<>();
-                for (String stringItem : lineSplit) {
-                    int item = Integer.parseInt(stringItem);
-                    transaction.add(item);
-                }
-
-                // Add transaction to diffset of each item not found
-                for (Map.Entry<Integer, Integer> itemPair : frequentItemSupports.entrySet()) {
-                    if (!transaction.contains(itemPair.getKey())) {
-                        BitSet diffset = itemDiffs.getOrDefault(itemPair.getKey(), new BitSet());
-                        diffset.set(transactionLine);
-                        itemDiffs.put(itemPair.getKey(), diffset);
-                    }
-                }
-                transactionLine++;
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    public void setParallelism(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
         }
-
-        System.out.println("    " + "- Create 1-set triples");
-        // Create triple for each item
-        List<Triple> triples = new ArrayList<>();
-        for (Map.Entry<Integer, Integer> entry : frequentItemSupports.entrySet()) {
-            Integer item = entry.getKey();
-            SortedSet<Integer> itemset = new TreeSet<>();
-            itemset.add(item);
-            int itemSupport = frequentItemSupports.get(item);
-            BitSet diffset = itemDiffs.get(item);
-            triples.add(new Triple(itemset, diffset, itemSupport));
-        }
-
-        System.out.println("    " + "- Run DEclat");
-        // Run DEclat
-        DiffEclatTree diffTree = new DiffEclatTree();
-        DiffEclat(triples, minSupCount, diffTree);
-
-        // Return tree
-        return diffTree;
+        this.parallelism = workers;
     }
 
     /**
-     * The the start to the run method is identical to the run2 method, and the only differnece is that this creates the
-     * diffsets directly
+     * This method builds the vertical database in one scan of the file and runs DiffEclat on the tidsets of the
+     * frequent items.
      * @param minimumSupport the minimum threshould
      * @return the DiffEclat tree
      */
@@ -140,64 +64,81 @@ public class DiffEclat {
         System.out.println("- New support threshold");
         minSup = minimumSupport;
 
-        System.out.println("    " + "- Count supports and tidsets");
-        // For each transaction (line) in dataset count item support and build item tid-sets
-        Map<Integer, Integer> itemSupports = new HashMap<>();
-        Map<Integer, BitSet> itemTids = new HashMap<>();
-        List<Integer> allTids = new ArrayList<>();
-        int transactionNum = 0;
-        try(BufferedReader br = Files.newBufferedReader(transactionPath)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] lineSplit = line.split(" ");
-                for (String stringItem : lineSplit) {
-                    int item = Integer.parseInt(stringItem);
-                    itemSupports.merge(item, 1, (a,b) -> a + b);
-                    BitSet tidset = itemTids.getOrDefault(item, new BitSet());
-                    tidset.set(transactionNum);
-                    itemTids.put(item, tidset);
-                }
-                allTids.add(transactionNum);
-                transactionNum++;
-            }
+        System.out.println("    " + "- Build vertical database");
+        // One scan of the dataset fills the tidset and support of every item
+        VerticalDatabase database;
+        try {
+            database = VerticalDatabase.read(transactionPath);
         } catch (IOException e) {
             e.printStackTrace();
+            database = new VerticalDatabase();
         }
 
         System.out.println("    " + "- Create 1-set triples");
-        // Create triple for each item
-        minSupCount = (int) Math.ceil(minSup * transactionNum);
+        // Create triple for each frequent item, in increasing item order
+        setSize = database.getTransactionCount();
+        minSupCount = (int) Math.ceil(minSup * setSize);
         List<Triple> triples = new ArrayList<>();
-        for (Map.Entry<Integer, Integer> entry : itemSupports.entrySet()) {
-            Integer item = entry.getKey();
+        for (int id : database.frequentIds(minSupCount)) {
             SortedSet<Integer> itemset = new TreeSet<>();
-            itemset.add(item);
-            int itemSupport = itemSupports.get(item);
-            if (itemSupport >= minSupCount) {
-                BitSet itemTidset = itemTids.get(item);
-                BitSet diffset = new BitSet();
-                for (Integer tid : allTids) {
-                    if (!itemTidset.get(tid)) {
-                        diffset.set(tid);
-                    }
-                }
-                triples.add(new Triple(itemset, diffset, itemSupport));
-            }
+            itemset.add(database.getItem(id));
+            // items start from their tidsets, their classes switch to diffsets once those are smaller
+            triples.add(new Triple(itemset, database.getTidset(id), database.getSupport(id), false));
         }
 
         System.out.println("    " + "- Run DiffEclat");
         // Run DEclat
         DiffEclatTree diffTree = new DiffEclatTree();
-        DiffEclat(triples, minSupCount, diffTree);
+        if (parallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (FoundItemset found : pool.invoke(new ClassTask(triples, minSupCount))) {
+                    diffTree.insertItemset(found.itemset, found.support);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            DiffEclat(triples, minSupCount, diffTree);
+        }
 
         // Return tree
         return diffTree;
     }
 
+    /**
+     * This method answers several thresholds with one read of the dataset and one mining run. The tree is mined at the
+     * lowest threshold and every other threshold is answered by filtering it.
+     * @param thresholds the minimum thresholds to answer
+     * @return a map from each threshold, in the order given, to the tree run would return for it
+     */
+
+    public Map<Double, DiffEclatTree> runSweep(double... thresholds) {
+        Map<Double, DiffEclatTree> results = new LinkedHashMap<>();
+        if (thresholds.length == 0) {
+            return results;
+        }
+        double lowest = thresholds[0];
+        for (double threshold : thresholds) {
+            lowest = Math.min(lowest, threshold);
+        }
+        DiffEclatTree lowestTree = run(lowest);
+
+        for (double threshold : thresholds) {
+            if (threshold == lowest) {
+                results.put(threshold, lowestTree);
+            } else {
+                results.put(threshold, lowestTree.filter((int) Math.ceil(threshold * setSize)));
+            }
+        }
+        return results;
+    }
+
     /**
      * This method takes in teh list of frequent itemsets, the minimum support, and the tree to recurively add itemsets
      * to the tree, join with other itemsets to increase the size of the itemsets, calculating the support and
-     * adding the itemset if it meets the support.
+     * adding the itemset if it meets the support. The itemsets of one list share their prefix and all use tidsets or
+     * all use diffsets. A class made from tidsets switches to diffsets when their total size is smaller (dEclat hybrid).
      * @param frequentTriples the list of frequent itemsets
      * @param minSupport the minimum support
      * @param tree the DiffEclatTree
@@ -205,31 +146,157 @@ public class DiffEclat {
 
     private void DiffEclat(List<Triple> frequentTriples, Integer minSupport, DiffEclatTree tree) {
         for (int i = 0; i < frequentTriples.size(); i++) {
+            Triple tripleA = frequentTriples.get(i);
 
-            tree.insertItemset(frequentTriples.get(i).getItemset(), frequentTriples.get(i).getSupport());
+            tree.insertItemset(tripleA.getItemset(), tripleA.getSupport());
 
             List<Triple> newFrequentTriples = new ArrayList<>();
             for (int j = i + 1; j < frequentTriples.size(); j++) {
-                SortedSet<Integer> itemA = frequentTriples.get(i).getItemset();
-                SortedSet<Integer> itemB = frequentTriples.get(j).getItemset();
-                SortedSet<Integer> finalItem = new TreeSet<>(itemA);
-                finalItem.addAll(itemB);
+                Triple joined = join(tripleA, frequentTriples.get(j), minSupport);
+                if (joined != null) {
+                    newFrequentTriples.add(joined);
+                }
+            }
 
-                BitSet diffsetA = frequentTriples.get(i).getDiffset();
-                BitSet diffsetB = frequentTriples.get(j).getDiffset();
+            if (!tripleA.isDiffset()) {
+                chooseRepresentation(tripleA, newFrequentTriples);
+            }
 
-                BitSet finalDiffset = (BitSet) diffsetB.clone();
-                finalDiffset.andNot(diffsetA);
+            if (newFrequentTriples.size() > 0) {
+                DiffEclat(newFrequentTriples, minSupport, tree);
+            }
+        }
+    }
 
-                int finalSupport = frequentTriples.get(i).getSupport() - finalDiffset.cardinality();
+    /**
+     * This method joins two itemsets with the same prefix, PA and PB, into PAB. With tidsets t(PAB) is t(PA) and t(PB)
+     * intersected, with diffsets d(PAB) is d(PB) without d(PA) and the support is the support of PA minus |d(PAB)|.
+     * @param tripleA the triple of PA
+     * @param tripleB the triple of PB
+     * @param minSupport the minimum support
+     * @return the triple of PAB in the representation of its inputs, or null if it is not frequent
+     */
 
-                if (finalSupport >= minSupport) {
-                    newFrequentTriples.add(new Triple(finalItem, finalDiffset, finalSupport));
-                }
+    private Triple join(Triple tripleA, Triple tripleB, int minSupport) {
+        // the most support PAB can lose from PA and still be frequent. PAB loses d(PB) without d(PA) with diffsets and
+        // t(PA) without t(PB) with tidsets, the count stops once it is over maxLoss
+        int maxLoss = tripleA.getSupport() - minSupport;
+        int lost;
+        if (tripleA.isDiffset()) {
+            lost = tripleB.getDiffset().andNotCardinality(tripleA.getDiffset(), maxLoss);
+        } else {
+            lost = tripleA.getTidset().andNotCardinality(tripleB.getTidset(), maxLoss);
+        }
+        if (lost > maxLoss) {
+            return null;
+        }
+
+        // only a frequent itemset gets its set built
+        SortedSet<Integer> finalItem = new TreeSet<>(tripleA.getItemset());
+        finalItem.addAll(tripleB.getItemset());
+        int finalSupport = tripleA.getSupport() - lost;
+        if (tripleA.isDiffset()) {
+            return new Triple(finalItem, tripleB.getDiffset().andNot(tripleA.getDiffset()), finalSupport);
+        }
+        return new Triple(finalItem, tripleA.getTidset().and(tripleB.getTidset()), finalSupport, false);
+    }
+
+    /**
+     * This method measures the class made by joining a prefix PA with tidsets, and switches it to diffsets if they
+     * are smaller in total. |d(PAB)| = support(PA) - support(PAB), and d(PAB) = t(PA) without t(PAB).
+     * @param prefix the triple of PA, using a tidset
+     * @param triples the class of PA, using tidsets, replaced in place by diffset triples if those are smaller
+     */
+
+    private void chooseRepresentation(Triple prefix, List<Triple> triples) {
+        long tidsetSize = 0;
+        long diffsetSize = 0;
+        for (Triple triple : triples) {
+            tidsetSize += triple.getSupport();
+            diffsetSize += prefix.getSupport() - triple.getSupport();
+        }
+        if (diffsetSize >= tidsetSize) {
+            return;
+        }
+        for (int k = 0; k < triples.size(); k++) {
+            Triple triple = triples.get(k);
+            CompressedBitmap diffset = prefix.getTidset().andNot(triple.getTidset());
+            triples.set(k, new Triple(triple.getItemset(), diffset, triple.getSupport()));
+        }
+    }
+
+    /**
+     * The FoundItemset class is a frequent itemset with its support, waiting to be put in the tree
+     */
+
+    private static class FoundItemset {
+        final SortedSet<Integer> itemset;
+        final int support;
+
+        FoundItemset(SortedSet<Integer> itemset, int support) {
+            this.itemset = itemset;
+            this.support = support;
+        }
+    }
+
+    /**
+     * The ClassTask mines an equivalence class like DiffEclat does, but the itemsets go to lists of its own instead of
+     * the tree, and every class it makes that is big enough is forked as a new task. The lists and the forked tasks
+     * alternate, so joining them in order gives the itemsets in the order the sequential run inserts them.
+     */
+
+    private class ClassTask extends RecursiveTask<List<FoundItemset>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Triple> triples;
+        private final int minSupport;
+        // found.get(k) comes before forked.get(k), which comes before found.get(k + 1)
+        private final List<List<FoundItemset>> found = new ArrayList<>();
+        private final List<ClassTask> forked = new ArrayList<>();
+
+        ClassTask(List<Triple> triples, int minSupport) {
+            this.triples = triples;
+            this.minSupport = minSupport;
+        }
+
+        @Override
+        protected List<FoundItemset> compute() {
+            found.add(new ArrayList<>());
+            mine(triples);
+            List<FoundItemset> results = found.get(0);
+            for (int k = 0; k < forked.size(); k++) {
+                results.addAll(forked.get(k).join());
+                results.addAll(found.get(k + 1));
             }
+            return results;
+        }
 
-            if (newFrequentTriples.size() > 0) {
-                DiffEclat(newFrequentTriples, minSupport, tree);
+        private void mine(List<Triple> frequentTriples) {
+            for (int i = 0; i < frequentTriples.size(); i++) {
+                Triple tripleA = frequentTriples.get(i);
+
+                found.get(found.size() - 1).add(new FoundItemset(tripleA.getItemset(), tripleA.getSupport()));
+
+                List<Triple> newFrequentTriples = new ArrayList<>();
+                for (int j = i + 1; j < frequentTriples.size(); j++) {
+                    Triple joined = DiffEclat.this.join(tripleA, frequentTriples.get(j), minSupport);
+                    if (joined != null) {
+                        newFrequentTriples.add(joined);
+                    }
+                }
+
+                if (!tripleA.isDiffset()) {
+                    chooseRepresentation(tripleA, newFrequentTriples);
+                }
+
+                if (newFrequentTriples.size() >= PARALLEL_CUTOFF) {
+                    ClassTask task = new ClassTask(newFrequentTriples, minSupport);
+                    task.fork();
+                    forked.add(task);
+                    found.add(new ArrayList<>());
+                } else if (newFrequentTriples.size() > 0) {
+                    mine(newFrequentTriples);
+                }
             }
         }
     }
@@ -272,7 +339,7 @@ public class DiffEclat {
         // Setup thresholds for testing
         //SortedSet<Double> thresholds = new TreeSet<>();
 //, 0.05,0.01,0.005,0.001,0.0001
-        Double [] thresholds = {0.2, 0.1, 0.05,0.01,0.005,0.001,0.0001};
+        double[] thresholds = {0.2, 0.1, 0.05,0.01,0.005,0.001,0.0001};
 
 //        for (double i = 0.5; i <= 0.001; i += 0.01) {
 //            thresholds.add(i);
@@ -291,12 +358,13 @@ public class DiffEclat {
             eclat.setup(Paths.get("accidents.txt"));
 
             //eclat.setup(Paths.get("/Users/slatertot21/Python Projects/cosc_254/Final Project/DiffEclat/Datasets/" + name + ".dat"));
-            for (double threshold : thresholds) {
-                startTime = System.currentTimeMillis();
-
-                result = eclat.run(threshold);
+            // every threshold is answered from one mining run at the lowest threshold, so they share its runtime
+            startTime = System.currentTimeMillis();
+            Map<Double, DiffEclatTree> sweep = eclat.runSweep(thresholds);
+            endTime = System.currentTimeMillis();
 
-                endTime = System.currentTimeMillis();
+            for (double threshold : thresholds) {
+                result = sweep.get(threshold);
 
                 System.out.println();
                 System.out.println("DATASET = " + count + " with THRESHOLD = " + threshold);
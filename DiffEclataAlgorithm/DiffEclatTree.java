@@ -68,6 +68,31 @@ public class DiffEclatTree {
         }
     }
 
+    /**
+     * This method copies the part of the tree whose itemsets meet a higher support. A node below another one extends
+     * its itemset, so its support is no larger and a node that fails the support is dropped with everything under it.
+     * @param minSupportCount the support an itemset needs to stay in the copy
+     * @return the new tree holding only the itemsets with at least minSupportCount support
+     */
+
+    public DiffEclatTree filter(int minSupportCount) {
+        DiffEclatTree filtered = new DiffEclatTree();
+        copyNode(root, filtered.root, minSupportCount, filtered);
+        return filtered;
+    }
+
+    private void copyNode(Node node, Node copy, int minSupportCount, DiffEclatTree filtered) {
+        for (Node child : node.children) {
+            if (child.support >= minSupportCount) {
+                Node childCopy = new Node(child.itemset, child.support);
+                copy.addChild(childCopy);
+                filtered.size++;
+                filtered.levelSize = Math.max(filtered.levelSize, child.itemset.size());
+                copyNode(child, childCopy, minSupportCount, filtered);
+            }
+        }
+    }
+
     public int size() {
         return size;
     }
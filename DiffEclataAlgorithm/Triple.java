@@ -1,23 +1,44 @@
 import java.util.*;
 
 /**
- * The triple class stores the itemset, and the corresponding diffset and support
+ * The triple class stores the itemset, and the corresponding diffset and support. The set can also be the tidset of
+ * the itemset instead, the hybrid mining starts from tidsets and switches an equivalence class to diffsets once they
+ * are smaller. Both are CompressedBitmaps, which are never changed once a triple holds them, so triples can share them.
  */
 public class Triple {
     private SortedSet<Integer> itemset;
-    private BitSet diffset;
+    private CompressedBitmap set;
     private Integer support;
+    private boolean diffset;
 
-    public Triple(SortedSet<Integer> inItemset, BitSet inDiffset, Integer inSupport) {
+    public Triple(SortedSet<Integer> inItemset, CompressedBitmap inDiffset, Integer inSupport) {
+        this(inItemset, inDiffset, inSupport, true);
+    }
+
+    /**
+     * @param inItemset the itemset
+     * @param inSet the diffset or the tidset of the itemset
+     * @param inSupport the support of the itemset
+     * @param inDiffset true if inSet is a diffset, false if it is a tidset
+     */
+
+    public Triple(SortedSet<Integer> inItemset, CompressedBitmap inSet, Integer inSupport, boolean inDiffset) {
         this.itemset = inItemset;
-        this.diffset = inDiffset;
+        this.set = inSet;
         this.support = inSupport;
+        this.diffset = inDiffset;
     }
     public SortedSet<Integer> getItemset() {
         return this.itemset;
     }
-    public BitSet getDiffset() {
-        return this.diffset;
+    public CompressedBitmap getDiffset() {
+        return this.set;
+    }
+    public CompressedBitmap getTidset() {
+        return this.set;
+    }
+    public boolean isDiffset() {
+        return diffset;
     }
     public Integer getSupport() {
         return support;
@@ -0,0 +1,153 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The VerticalDatabase class holds the tidset of every item of a dataset, built in one scan of the file. Items get
+ * dense ids the first time they are seen and the tidsets and supports are kept in arrays indexed by those ids, so a
+ * transaction only costs one lookup and one append per item. The tidsets are CompressedBitmaps, since transactions are
+ * read in order the ids only ever get appended, and an item that only shows up in a few transactions only costs a few
+ * bytes. Diffsets are not stored, DiffEclat makes them from the tidsets once a class switches to them.
+ */
+
+public class VerticalDatabase {
+    // largest item value that gets a direct lookup array, larger or negative items go through a map
+    private static final int MAX_DIRECT_ITEM = 1 << 24;
+
+    private int[] items = new int[64];
+    private CompressedBitmap[] tidsets = new CompressedBitmap[64];
+    private int[] supports = new int[64];
+    private int itemCount = 0;
+    private int transactionCount = 0;
+
+    private int[] denseIds = new int[0];
+    private final Map<Integer, Integer> otherDenseIds = new HashMap<>();
+
+    /**
+     * This method reads a data file with one transaction per line and the items separated by spaces
+     * @param path the Path to the data file
+     * @return the vertical database of the file
+     * @throws IOException if the file cannot be read
+     */
+
+    public static VerticalDatabase read(Path path) throws IOException {
+        VerticalDatabase database = new VerticalDatabase();
+        try (BufferedReader br = Files.newBufferedReader(path)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                database.addTransaction(line);
+            }
+        }
+        return database;
+    }
+
+    /**
+     * This method parses the items of a line straight from its characters and adds the transaction to the tidset of
+     * each item
+     * @param line the line of the data file
+     */
+
+    private void addTransaction(String line) {
+        int tid = transactionCount++;
+        int i = 0;
+        int n = line.length();
+        while (i < n) {
+            char c = line.charAt(i);
+            if (c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && line.charAt(i) != ' ' && line.charAt(i) != '\t') {
+                i++;
+            }
+            int id = denseId(Integer.parseInt(line, start, i, 10));
+            // an item repeated in a line is only counted once
+            if (tidsets[id].add(tid)) {
+                supports[id]++;
+            }
+        }
+    }
+
+    /**
+     * @param item an item of the dataset
+     * @return the dense id of the item, a new one if the item was not seen before
+     */
+
+    private int denseId(int item) {
+        if (item >= 0 && item < MAX_DIRECT_ITEM) {
+            if (item >= denseIds.length) {
+                int oldLength = denseIds.length;
+                denseIds = Arrays.copyOf(denseIds, Math.min(MAX_DIRECT_ITEM, Math.max(item + 1, oldLength * 2)));
+                Arrays.fill(denseIds, oldLength, denseIds.length, -1);
+            }
+            if (denseIds[item] < 0) {
+                denseIds[item] = newItem(item);
+            }
+            return denseIds[item];
+        }
+        Integer id = otherDenseIds.get(item);
+        if (id == null) {
+            id = newItem(item);
+            otherDenseIds.put(item, id);
+        }
+        return id;
+    }
+
+    private int newItem(int item) {
+        if (itemCount == items.length) {
+            items = Arrays.copyOf(items, itemCount * 2);
+            tidsets = Arrays.copyOf(tidsets, itemCount * 2);
+            supports = Arrays.copyOf(supports, itemCount * 2);
+        }
+        items[itemCount] = item;
+        tidsets[itemCount] = new CompressedBitmap();
+        return itemCount++;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * @return the number of distinct items, the dense ids go from 0 to itemCount - 1
+     */
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getItem(int id) {
+        return items[id];
+    }
+
+    public int getSupport(int id) {
+        return supports[id];
+    }
+
+    public CompressedBitmap getTidset(int id) {
+        return tidsets[id];
+    }
+
+    /**
+     * @param minSupportCount the support an item needs
+     * @return the dense ids of the items with at least minSupportCount support, in increasing item order
+     */
+
+    public int[] frequentIds(int minSupportCount) {
+        List<Integer> frequent = new ArrayList<>();
+        for (int id = 0; id < itemCount; id++) {
+            if (supports[id] >= minSupportCount) {
+                frequent.add(id);
+            }
+        }
+        frequent.sort(Comparator.comparingInt(id -> items[id]));
+        int[] ids = new int[frequent.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = frequent.get(i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,172 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.*;
+
+//FP-tree stored as parallel int columns (struct of arrays) instead of Node objects: node i is the i-th entry of every
+//column and pointers are node indexes (-1 = none). Node 0 is the root. No per-node objects or hash maps means a few
+//ints per node and nothing for the GC to trace. The columns are heap arrays or direct buffers outside the heap
+//(a direct buffer holds at most Integer.MAX_VALUE bytes, so an off-heap tree is limited to 2^29 nodes)
+class ArrayFPTree extends FPTree {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / Integer.BYTES;
+
+    private final boolean offHeap;
+    private IntBuffer item; //item id of the node
+    private IntBuffer count; //support count of the node
+    private IntBuffer parent;
+    private IntBuffer link; //next node with the same item (node-link)
+    private IntBuffer firstChild;
+    private IntBuffer nextSibling; //siblings are kept sorted by item so a lookup can stop early
+    private int size = 0; //# of nodes including the root
+    private int capacity;
+
+    private final int[] rootChildren; //the root has the most children, they are looked up directly by item
+    private final int[] head; //header table: first node of each item
+    private final int[] tail; //last node of each item
+
+    public ArrayFPTree(int itemCount, boolean offHeap) {
+        super(itemCount);
+        this.offHeap = offHeap;
+        this.capacity = INITIAL_CAPACITY;
+        item = allocate(capacity);
+        count = allocate(capacity);
+        parent = allocate(capacity);
+        link = allocate(capacity);
+        firstChild = allocate(capacity);
+        nextSibling = allocate(capacity);
+        rootChildren = new int[itemCount];
+        head = new int[itemCount];
+        tail = new int[itemCount];
+        Arrays.fill(rootChildren, -1);
+        Arrays.fill(head, -1);
+        Arrays.fill(tail, -1);
+        addNode(-1, 0, -1); //root
+    }
+
+    private IntBuffer allocate(int ints) {
+        if (offHeap) {
+            return ByteBuffer.allocateDirect(ints * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return IntBuffer.wrap(new int[ints]);
+    }
+
+    private IntBuffer grow(IntBuffer column, int newCapacity) {
+        IntBuffer grown = allocate(newCapacity);
+        grown.put(0, column, 0, size);
+        return grown;
+    }
+
+    private int addNode(int nodeItem, int nodeCount, int nodeParent) {
+        if (size == capacity) {
+            if (capacity == MAX_CAPACITY) throw new IllegalStateException("FP-tree has more nodes than the columns can hold");
+            capacity = (int) Math.min((long) capacity * 2, MAX_CAPACITY);
+            item = grow(item, capacity);
+            count = grow(count, capacity);
+            parent = grow(parent, capacity);
+            link = grow(link, capacity);
+            firstChild = grow(firstChild, capacity);
+            nextSibling = grow(nextSibling, capacity);
+        }
+        int node = size++;
+        item.put(node, nodeItem);
+        count.put(node, nodeCount);
+        parent.put(node, nodeParent);
+        link.put(node, -1);
+        firstChild.put(node, -1);
+        nextSibling.put(node, -1);
+        return node;
+    }
+
+    @Override
+    public void insertTransaction(int[] transaction, int length, int pathCount) {
+        int currentNode = 0;
+
+        for (int i = 0; i < length; i++) {
+            int pathItem = transaction[i];
+            int child;
+            if (currentNode == 0) {
+                child = rootChildren[pathItem];
+                if (child < 0) {
+                    child = newChild(0, -1, pathItem);
+                    rootChildren[pathItem] = child;
+                }
+            } else {
+                //sorted sibling scan: stop at the first sibling whose item is not smaller
+                int previous = -1;
+                child = firstChild.get(currentNode);
+                while (child >= 0 && item.get(child) < pathItem) {
+                    previous = child;
+                    child = nextSibling.get(child);
+                }
+                if (child < 0 || item.get(child) != pathItem) {
+                    child = newChild(currentNode, previous, pathItem);
+                }
+            }
+            count.put(child, count.get(child) + pathCount);
+            supports[pathItem] += pathCount;
+            currentNode = child;
+        }
+    }
+
+    //adds a node with count 0 after previous in the sibling list of node (previous = -1 puts it first) and appends it
+    //to the node-links of its item
+    private int newChild(int node, int previous, int childItem) {
+        int child = addNode(childItem, 0, node);
+        if (previous < 0) {
+            nextSibling.put(child, firstChild.get(node));
+            firstChild.put(node, child);
+        } else {
+            nextSibling.put(child, nextSibling.get(previous));
+            nextSibling.put(previous, child);
+        }
+        if (head[childItem] < 0) {
+            head[childItem] = child;
+        } else {
+            link.put(tail[childItem], child);
+        }
+        tail[childItem] = child;
+        return child;
+    }
+
+    @Override
+    protected void forEachPrefixPath(int pathItem, int[] buffer, PathVisitor visitor) {
+        if (pathItem >= head.length) return;
+
+        for (int node = head[pathItem]; node >= 0; node = link.get(node)) {
+            int length = 0;
+            for (int p = parent.get(node); p > 0; p = parent.get(p)) {
+                buffer[length++] = item.get(p);
+            }
+            visitor.visit(buffer, length, count.get(node));
+        }
+    }
+
+    //conditional trees are small and short lived, so they always stay on the heap
+    @Override
+    protected FPTree newTree(int itemCount) {
+        return new ArrayFPTree(itemCount, false);
+    }
+
+    @Override
+    public int[][] getSinglePath() {
+        int length = 0;
+        for (int node = firstChild.get(0); node >= 0; node = firstChild.get(node)) {
+            if (nextSibling.get(node) >= 0) return null;
+            length++;
+        }
+        int[][] itemsAndCounts = new int[2][length];
+        int i = 0;
+        for (int node = firstChild.get(0); node >= 0; node = firstChild.get(node)) {
+            itemsAndCounts[0][i] = item.get(node);
+            itemsAndCounts[1][i] = count.get(node);
+            i++;
+        }
+        return itemsAndCounts;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 1;
+    }
+}
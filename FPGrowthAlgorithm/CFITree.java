@@ -0,0 +1,83 @@
+import java.util.*;
+
+//CFI-tree (FPClose): prefix tree of the closed itemsets found so far, used to test if a new itemset is subsumed, i.e.
+//if a closed superset with the same support was already found. Itemsets are inserted with ascending ids, every node
+//keeps the largest support of the itemsets going through it and nodes of the same item are linked from a header
+//table. Stored as parallel int arrays like ArrayFPTree (node 0 = root, -1 = none)
+class CFITree {
+    private int[] item = new int[64];
+    private int[] maxSupport = new int[64]; //largest support of an itemset that goes through the node
+    private int[] parent = new int[64];
+    private int[] link = new int[64]; //next node with the same item
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private int size = 0;
+
+    private final int[] head; //first node of each item
+
+    //itemCount = number of item ids that can be inserted (ids 0 to itemCount - 1)
+    public CFITree(int itemCount) {
+        head = new int[itemCount];
+        Arrays.fill(head, -1);
+        addNode(-1, -1); //root
+    }
+
+    private int addNode(int nodeItem, int nodeParent) {
+        if (size == item.length) {
+            int capacity = size * 2;
+            item = Arrays.copyOf(item, capacity);
+            maxSupport = Arrays.copyOf(maxSupport, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            link = Arrays.copyOf(link, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+        }
+        int node = size++;
+        item[node] = nodeItem;
+        maxSupport[node] = 0;
+        parent[node] = nodeParent;
+        firstChild[node] = -1;
+        if (nodeParent >= 0) {
+            nextSibling[node] = firstChild[nodeParent];
+            firstChild[nodeParent] = node;
+            link[node] = head[nodeItem];
+            head[nodeItem] = node;
+        } else {
+            nextSibling[node] = -1;
+            link[node] = -1;
+        }
+        return node;
+    }
+
+    //adds a closed itemset (ids sorted ascending) with its support
+    public void insert(int[] itemset, int support) {
+        int node = 0;
+        for (int pathItem : itemset) {
+            int child = firstChild[node];
+            while (child >= 0 && item[child] != pathItem) child = nextSibling[child];
+            if (child < 0) child = addNode(pathItem, node);
+            maxSupport[child] = Math.max(maxSupport[child], support);
+            node = child;
+        }
+    }
+
+    //true if a stored itemset contains every id of the itemset (sorted ascending) with a support of at least support.
+    //Such an itemset goes through a node of the largest id whose path up to the root holds the other ids
+    public boolean hasSuperset(int[] itemset, int support) {
+        int last = itemset.length - 1;
+        for (int node = head[itemset[last]]; node >= 0; node = link[node]) {
+            if (maxSupport[node] < support) continue;
+            //path items get smaller going up, match them against the itemset from the end
+            int i = last - 1;
+            for (int p = parent[node]; p > 0 && i >= 0; p = parent[p]) {
+                if (item[p] == itemset[i]) {
+                    i--;
+                } else if (item[p] < itemset[i]) {
+                    break; //passed the id without finding it
+                }
+            }
+            if (i < 0) return true;
+        }
+        return false;
+    }
+}
@@ -3,51 +3,78 @@ import java.util.Map;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class FPGrowth {
+    private static final int MIN_FORK_ITEMS = 16; //conditional trees that can hold fewer items are mined in the task
     private static double minSupport;
-    private static List<List<String>> transactions = new ArrayList<>(); //minimum support
-    private static Map<String, Integer> itemSupport = new HashMap<>(); //stores all input file transactions
-    private static List<String> frequentItems; //stores frequent items
+    private static int transactionCount = 0; //# of non-empty lines in the input folder
+    private static int[] itemCounts = new int[64]; //support of each provisional item id (scan 1)
+    private static ItemDictionary.Builder itemIds = new ItemDictionary.Builder(); //token -> provisional id while reading
+    private static ItemDictionary dictionary; //frequent items ranked by support (id 0 = most frequent)
     private static FPTree fpTree; //data structure for efficient mining
+    private static FPTree.Storage treeStorage = FPTree.Storage.ARRAYS; //node layout of the FP-tree
     private static int totalMiningSteps = 0; //number of frequent items
     private static int completedMiningSteps = 0; //frequent items mined so far
+    private static int parallelism = 1; //# of worker threads used for mining
+    private static boolean closedOnly = false; //only mine the closed itemsets
+    private static int topK = 0; //> 0: mine the topK most frequent itemsets instead of using minSupport
 
     public static void main(String[] args) {
         long programStart = System.currentTimeMillis();
 
 
-        if (args.length != 2) {
-            System.out.println("arg1 -> folder name, arg2 -> minSupport [0,1)");
+        if (args.length < 2) {
+            System.out.println("arg1 -> folder name, arg2 -> minSupport [0,1) or top=k, optional args in any order -> " +
+                    "tree storage (nodes, arrays or off_heap), # of mining threads, closed (only closed itemsets)");
             return;
         }
 
         String input = args[0]; //folder name
-        minSupport = Double.parseDouble(args[1]); //min support from 0 to 1
 
         try {
-            System.out.println("Minimum support: " + minSupport);
+            if (args[1].startsWith("top=")) {
+                topK = Integer.parseInt(args[1].substring(4)); //k most frequent itemsets
+            } else {
+                minSupport = Double.parseDouble(args[1]); //min support from 0 to 1
+            }
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equalsIgnoreCase("closed")) {
+                    closedOnly = true;
+                } else if (args[i].chars().allMatch(Character::isDigit)) {
+                    setParallelism(Integer.parseInt(args[i]));
+                } else {
+                    treeStorage = FPTree.Storage.valueOf(args[i].toUpperCase()); //throws IllegalArgumentException if unknown
+                }
+            }
+
+            System.out.println(topK > 0 ? "Top-k: " + topK : "Minimum support: " + minSupport);
 
-            //reads transactions from folder
-            long start = System.currentTimeMillis(); //1: time taken to read transactions
-            readTransactionsFromFolder(input);
+            //scan 1: counts transactions and item supports from folder
+            long start = System.currentTimeMillis(); //1: time taken to count the items
+            countItemsInFolder(input);
             long end = System.currentTimeMillis();
-            System.out.printf("Read %d transactions in %d ms\n", transactions.size(), (end - start));
+            System.out.printf("Counted %d transactions in %d ms\n", transactionCount, (end - start));
 
-            //calculates min support count (# of items in database needed to meet minsup)
-            int minSupCount = (int) Math.ceil(transactions.size() * minSupport);
+            //calculates min support count (# of items in database needed to meet minsup), for top-k the support of the
+            //k-th most frequent item is a safe start since there are k itemsets (the items) that reach it
+            int minSupCount = topK > 0 ? kthItemSupport(topK) : (int) Math.ceil(transactionCount * minSupport);
 
-            //builds the data structure for efficient mining
+            //scan 2: builds the data structure for efficient mining
             long start2 = System.currentTimeMillis(); //2: time taken to build FPTree
-            buildFPTree(minSupCount);
+            buildFPTree(input, minSupCount);
             long end2 = System.currentTimeMillis();
             System.out.printf("Built FP-Tree in %d ms\n", (end2 - start2));
 
             //mines the itemsets
             long start3 = System.currentTimeMillis(); //3: time taken to mine
-            Map<List<String>, Integer> frequentItemsets = mineFrequentItemsets(minSupCount);
+            FrequentItemsets frequentItemsets = topK > 0 ? mineTopK(topK, minSupCount) : mineFrequentItemsets(minSupCount);
             long end3 = System.currentTimeMillis();
+            if (topK > 0 && frequentItemsets.size() > 0) {
+                //reports the support of the k-th itemset as the min support
+                minSupport = frequentItemsets.getSupport(frequentItemsets.size() - 1) / (double) transactionCount;
+            }
             System.out.printf("Mined %d frequent itemsets in %d ms\n", frequentItemsets.size(), (end3 - start3));
 
             //measures program runtime and creates an output folder
@@ -66,12 +93,52 @@ public class FPGrowth {
         }
     }
 
+    //runs the whole pipeline without writing output (used to compare against the approximate results)
+    public static Map<List<String>, Integer> run(String inputDir, double support) throws IOException {
+        minSupport = support;
+        countItemsInFolder(inputDir);
+        int minSupCount = (int) Math.ceil(transactionCount * minSupport);
+        buildFPTree(inputDir, minSupCount);
+        return mineFrequentItemsets(minSupCount).decode(dictionary);
+    }
+
+    //the k most frequent itemsets without a min support (ties with the k-th itemset are broken by mining order)
+    public static Map<List<String>, Integer> runTopK(String inputDir, int k) throws IOException {
+        countItemsInFolder(inputDir);
+        int minSupCount = kthItemSupport(k);
+        buildFPTree(inputDir, minSupCount);
+        return mineTopK(k, minSupCount).decode(dictionary);
+    }
+
+    public static int getTransactionCount() {
+        return transactionCount;
+    }
+
+    //mines the suffix items on a ForkJoinPool with this many workers (1 = sequential), the result is the same
+    public static void setParallelism(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        parallelism = workers;
+    }
+
+    //only keeps the closed itemsets (no superset with the same support), every frequent itemset and its support can
+    //still be derived from them. Closed mining runs sequentially
+    public static void setClosedOnly(boolean closed) {
+        closedOnly = closed;
+    }
+
+    //NODES keeps the object tree, ARRAYS and OFF_HEAP use the column layout (for trees that are too big for the heap)
+    public static void setTreeStorage(FPTree.Storage storage) {
+        treeStorage = storage;
+    }
+
     //result summary
     private static void printResults(long startTime, long endTime,
-                                     Map<List<String>, Integer> frequentItemsets) {
+                                     FrequentItemsets frequentItemsets) {
         System.out.println("Computation Time: " + (endTime - startTime) + " ms");
-        System.out.println("Transactions: " + transactions.size());
-        System.out.println("Freq items count: " + frequentItems.size());
+        System.out.println("Transactions: " + transactionCount);
+        System.out.println("Freq items count: " + dictionary.size());
         System.out.println("Freq itemsets count: " + frequentItemsets.size());
     }
     //creates output folder if not already created
@@ -84,16 +151,23 @@ public class FPGrowth {
 
 
     private static void saveResults(String outputFolder,
-                                    Map<List<String>, Integer> frequentItemsets,
+                                    FrequentItemsets frequentItemsets,
                                     double minSup, long computationTime) throws IOException {
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         String outputFile = outputFolder + "/frequent_itemsets_" + timestamp + ".txt";
 
         try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
             writer.println("Minimum Support: " + minSup);
-            writer.println("Minimum Support Count: " + (int) Math.ceil(transactions.size() * minSup));
-            writer.println("Transactions in database: " + transactions.size());
-            writer.println("Frequent items count: " + frequentItems.size());
+            int minSupCount = (int) Math.ceil(transactionCount * minSup);
+            if (topK > 0) {
+                //itemsets are sorted by support, the last one is the k-th
+                minSupCount = frequentItemsets.size() > 0 ? frequentItemsets.getSupport(frequentItemsets.size() - 1) : 0;
+            }
+            writer.println("Minimum Support Count: " + minSupCount);
+            writer.println("Transactions in database: " + transactionCount);
+            writer.println("Frequent items count: " + dictionary.size());
+            if (closedOnly) writer.println("Closed itemsets only");
+            if (topK > 0) writer.println("Top-k: " + topK);
             writer.println("Frequent itemsets count: " + frequentItemsets.size());
             writer.println("Computation Time: " + computationTime + " ms");
             writer.println();
@@ -102,21 +176,22 @@ public class FPGrowth {
             writer.println("Frequent Itemsets:");
 
             //sorts itemsets by support (descending) and size if supports are equal (ascending)
-            List<Map.Entry<List<String>, Integer>> sortedEntries = new ArrayList<>(frequentItemsets.entrySet());
-            sortedEntries.sort((e1, e2) -> {
-                int cmp = e2.getValue().compareTo(e1.getValue());
-                if (cmp == 0) return Integer.compare(e1.getKey().size(), e2.getKey().size());
+            Integer[] order = new Integer[frequentItemsets.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (i1, i2) -> {
+                int cmp = Integer.compare(frequentItemsets.getSupport(i2), frequentItemsets.getSupport(i1));
+                if (cmp == 0) return Integer.compare(frequentItemsets.getItemset(i1).length, frequentItemsets.getItemset(i2).length);
                 return cmp;
             }
             );
-            //writes each itemset with its support count
-            for (Map.Entry<List<String>, Integer> entry : sortedEntries) {
-                writer.println(entry.getKey() + " appears " + entry.getValue() + " times.");
+            //writes each itemset with its support count (ids are turned back into the original items here)
+            for (int i : order) {
+                writer.println(dictionary.decode(frequentItemsets.getItemset(i)) + " appears " + frequentItemsets.getSupport(i) + " times.");
             }
         }
     }
 
-    private static void readTransactionsFromFolder(String folderPath) throws IOException {
+    static File[] listInputFiles(String folderPath) throws IOException {
         File folder = new File(folderPath);
         if (!folder.isDirectory()) {
             throw new IOException("pathname or directory error");
@@ -125,17 +200,60 @@ public class FPGrowth {
         if (files == null) {
             throw new IOException("no file in input folder");
         }
-        //if dataset is multiple files it will be compressed into one list of transactions
-        for (File file : files) {
+        //if dataset is multiple files they are read one after the other as one list of transactions
+        return files;
+    }
+
+    //splits a line into items on whitespace and commas (same as the "[\\s,]+" regex without the regex), returns the
+    //number of items put into the buffer
+    static int splitLine(String line, String[] buffer) {
+        int count = 0;
+        int i = 0;
+        int n = line.length();
+        while (i < n) {
+            while (i < n && isSeparator(line.charAt(i))) i++;
+            int start = i;
+            while (i < n && !isSeparator(line.charAt(i))) i++;
+            if (i > start) {
+                if (count == buffer.length) return -1; //caller grows the buffer and splits again
+                buffer[count++] = line.substring(start, i);
+            }
+        }
+        return count;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == ',' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    //scan 1: counts the transactions and the support of every item without keeping the transactions, items are
+    //interned to provisional ids and each item is counted once per transaction
+    private static void countItemsInFolder(String folderPath) throws IOException {
+        transactionCount = 0;
+        itemIds = new ItemDictionary.Builder();
+        itemCounts = new int[64];
+        int[] lastSeen = new int[64]; //last transaction each provisional id was counted in (1-based)
+        String[] tokens = new String[64];
+
+        for (File file : listInputFiles(folderPath)) {
             if (file.isFile()) {
                 try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                     String line;
                     while ((line = reader.readLine()) != null) {
-                        if (line.trim().isEmpty()) continue;
-                        //Splits line into the individual items and then gets rid of strings with no transactions (" ")
-                        List<String> transaction = Arrays.stream(line.split("[\\s,]+")).filter(s -> !s.isEmpty()).collect(Collectors.toList());
-                        if (!transaction.isEmpty()) {
-                            transactions.add(transaction);
+                        int length;
+                        while ((length = splitLine(line, tokens)) < 0) tokens = new String[tokens.length * 2];
+                        if (length == 0) continue;
+                        transactionCount++;
+                        for (int i = 0; i < length; i++) {
+                            int item = itemIds.intern(tokens[i]);
+                            if (item == itemCounts.length) {
+                                itemCounts = Arrays.copyOf(itemCounts, item * 2);
+                                lastSeen = Arrays.copyOf(lastSeen, item * 2);
+                            }
+                            if (lastSeen[item] != transactionCount) {
+                                lastSeen[item] = transactionCount;
+                                itemCounts[item]++;
+                            }
                         }
                     }
                 }
@@ -143,70 +261,288 @@ public class FPGrowth {
         }
     }
 
-    private static void buildFPTree(int minSupCount) {
-        //Pass 1: Calculate item supports (count each time an item appears)
-        for (List<String> transaction : transactions) {
-            for (String item : transaction) {
-                itemSupport.put(item, itemSupport.getOrDefault(item, 0) + 1);
+    //scan 2: re-reads the folder and inserts every transaction straight into the tree, only the tree is kept
+    private static void buildFPTree(String folderPath, int minSupCount) throws IOException {
+        //filter infrequent items and rank the rest by descending supports
+        dictionary = itemIds.build(itemCounts, minSupCount);
+
+        fpTree = FPTree.create(treeStorage, dictionary.size());
+        int[] lastSeen = new int[dictionary.size()]; //last transaction each id was added to (1-based)
+        int transaction = 0;
+        String[] tokens = new String[64];
+        int[] filtered = new int[64];
+
+        for (File file : listInputFiles(folderPath)) {
+            if (file.isFile()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int length;
+                        while ((length = splitLine(line, tokens)) < 0) tokens = new String[tokens.length * 2];
+                        if (length == 0) continue;
+                        transaction++;
+                        //filter items by minSupCount (same as frequency) and sort by rank (ids are ranks)
+                        if (filtered.length < length) filtered = new int[tokens.length];
+                        int frequent = 0;
+                        for (int i = 0; i < length; i++) {
+                            int id = dictionary.fromProvisional(itemIds.intern(tokens[i]));
+                            if (id >= 0 && lastSeen[id] != transaction) {
+                                lastSeen[id] = transaction;
+                                filtered[frequent++] = id;
+                            }
+                        }
+                        Arrays.sort(filtered, 0, frequent);
+                        //add transaction to data structure
+                        fpTree.insertTransaction(filtered, frequent, 1);
+                    }
+                }
             }
         }
+    }
 
-        //filter infrequent items and sort by descending supports using comparators
-        frequentItems = itemSupport.entrySet().stream().filter(entry -> entry.getValue() >= minSupCount).sorted((e1, e2) ->
-                        {
-                            int cmp = e2.getValue().compareTo(e1.getValue());
-                            if (cmp == 0) return e1.getKey().compareTo(e2.getKey());
-                            return cmp;
-                        }
-                    ).map(Map.Entry::getKey).collect(Collectors.toList());
+    private static FrequentItemsets mineFrequentItemsets(int minSupCount) {
+        FrequentItemsets frequentItemsets = new FrequentItemsets();
+        totalMiningSteps = dictionary.size();
+        completedMiningSteps = 0;
+        if (closedOnly) {
+            return mineClosedItemsets(minSupCount);
+        }
+        if (parallelism > 1) {
+            return mineInParallel(minSupCount);
+        }
 
-        //Pass 2: Build FP-Tree
-        fpTree = new FPTree();
-        for (List<String> transaction : transactions) {
-            //filter items by minSupCount (same as frequency)
-            List<String> filtered = transaction.stream().filter(item -> itemSupport.get(item) >= minSupCount).sorted(Comparator.comparingInt(item -> frequentItems.indexOf(item))).collect(Collectors.toList());
-            //add transaction to data structure
-            fpTree.insertTransaction(filtered);
+        //mines the conditional tree of each item (least freq to most)
+        for (int item = dictionary.size() - 1; item >= 0; item--) {
+            System.out.printf("item %d/%d: %s\n", (dictionary.size() - item), dictionary.size(), dictionary.getToken(item));
+
+            long start4 = System.currentTimeMillis(); //4: time taken to complete a mining step
+            //adds the single frequent item
+            int[] pattern = {item};
+            frequentItemsets.add(pattern, 1, dictionary.getSupport(item));
+
+            //recursively mines every itemset ending with this item
+            growth(fpTree.buildConditionalTree(item, minSupCount), pattern, minSupCount, frequentItemsets);
+
+            completedMiningSteps++;
+            long end4 = System.currentTimeMillis();
+            System.out.printf("%d ms (%d/%d items)\n", (end4 - start4), completedMiningSteps, totalMiningSteps);
         }
+
+        return frequentItemsets;
     }
 
-    private static Map<List<String>, Integer> mineFrequentItemsets(int minSupCount) {
-        Map<List<String>, Integer> frequentItemsets = new HashMap<>(); //hashmap stores frequent itemsets (fast operations)
-        totalMiningSteps = frequentItems.size();
-        completedMiningSteps = 0;
+    //support of the k-th most frequent item after scan 1 (1 if there are fewer than k items)
+    private static int kthItemSupport(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        int[] counts = Arrays.copyOf(itemCounts, itemIds.size());
+        if (counts.length < k) return 1;
+        Arrays.sort(counts);
+        return Math.max(1, counts[counts.length - k]);
+    }
+
+    //top-k mining: a min-heap keeps the k best itemsets so far and its smallest support becomes the min support
+    //count as soon as it is full, so later conditional trees are built with a higher threshold and smaller. Items are
+    //taken most frequent first at every level so the threshold rises early
+    private static FrequentItemsets mineTopK(int k, int minSupCount) {
+        TopKItemsets topItemsets = new TopKItemsets(k, minSupCount);
+        topKGrowth(fpTree, new int[0], topItemsets);
+        return topItemsets.toFrequentItemsets();
+    }
+
+    private static void topKGrowth(FPTree tree, int[] suffix, TopKItemsets topItemsets) {
+        for (int item : tree.getItems()) {
+            int support = tree.getSupport(item);
+            if (support < topItemsets.getMinSupCount()) continue;
 
-        //adds single frequent items
-        for (String item : frequentItems) {
-            frequentItemsets.put(Collections.singletonList(item), itemSupport.get(item));
+            int[] pattern = extend(suffix, item);
+            topItemsets.offer(pattern, support);
+            //supersets of the pattern are less frequent, only worth mining if they can still get in
+            FPTree conditionalTree = tree.buildConditionalTree(item, topItemsets.getMinSupCount());
+            if (!conditionalTree.isEmpty()) {
+                topKGrowth(conditionalTree, pattern, topItemsets);
+            }
         }
+    }
+
+    //FPClose: same search as growth but every itemset is grown to its closure before it is used, so only closed
+    //itemsets come out. Items are taken least frequent first at every level, so a closed superset with the same support
+    //is always found before its subsets and the CFI-tree can prune them with their whole branch
+    private static FrequentItemsets mineClosedItemsets(int minSupCount) {
+        FrequentItemsets closedItemsets = new FrequentItemsets();
+        CFITree cfiTree = new CFITree(dictionary.size());
 
-        //mines conditional patterns for each item (least freq to most)
-        for (int i = frequentItems.size() - 1; i >= 0; i--) {
-            String item = frequentItems.get(i);
-            System.out.printf("item %d/%d: %s\n", (frequentItems.size() - i), frequentItems.size(), item);
+        for (int item = dictionary.size() - 1; item >= 0; item--) {
+            System.out.printf("item %d/%d: %s\n", (dictionary.size() - item), dictionary.size(), dictionary.getToken(item));
 
             long start4 = System.currentTimeMillis(); //4: time taken to complete a mining step
-            //get all paterns for an item
-            Map<List<String>, Integer> conditionalPatterns = fpTree.findConditionalPatterns(item);
-
-            //for each pattern
-            for (Map.Entry<List<String>, Integer> entry : conditionalPatterns.entrySet()) {
-                if (entry.getValue() >= minSupCount) {
-                    //add current item to prefix
-                    List<String> newPattern = new ArrayList<>(entry.getKey());
-                    newPattern.add(item);
-                    //sort pattern
-                    Collections.sort(newPattern, Comparator.comparingInt(it -> frequentItems.indexOf(it)));
-                    //add pattern to freq itemsets
-                    frequentItemsets.put(newPattern, entry.getValue());
-                }
-            }
+            closedStep(fpTree, new int[0], item, minSupCount, cfiTree, closedItemsets);
 
             completedMiningSteps++;
             long end4 = System.currentTimeMillis();
             System.out.printf("%d ms (%d/%d items)\n", (end4 - start4), completedMiningSteps, totalMiningSteps);
         }
+        return closedItemsets;
+    }
 
-        return frequentItemsets;
+    private static void closedGrowth(FPTree tree, int[] suffix, int minSupCount, CFITree cfiTree,
+                                     FrequentItemsets closedItemsets) {
+        int[] items = tree.getItems();
+        for (int i = items.length - 1; i >= 0; i--) {
+            closedStep(tree, suffix, items[i], minSupCount, cfiTree, closedItemsets);
+        }
+    }
+
+    //suffix + item, plus every item of its pattern base that is in all of its transactions (closure), is closed
+    //unless a closed superset with the same support was already found. Its conditional tree leaves the closure out
+    private static void closedStep(FPTree tree, int[] suffix, int item, int minSupCount, CFITree cfiTree,
+                                   FrequentItemsets closedItemsets) {
+        int support = tree.getSupport(item);
+        int[] conditionalSupport = tree.countConditionalSupports(item);
+
+        int[] closure = new int[item + 1];
+        int closureLength = 0;
+        for (int pathItem = 0; pathItem < item; pathItem++) {
+            if (conditionalSupport[pathItem] == support) closure[closureLength++] = pathItem;
+        }
+        closure[closureLength++] = item;
+        int[] itemset = merge(closure, closureLength, suffix);
+
+        if (cfiTree.hasSuperset(itemset, support)) return;
+        cfiTree.insert(itemset, support);
+        closedItemsets.add(itemset, itemset.length, support);
+
+        FPTree conditionalTree = tree.buildConditionalTree(item, conditionalSupport, minSupCount, support);
+        if (!conditionalTree.isEmpty()) {
+            closedGrowth(conditionalTree, itemset, minSupCount, cfiTree, closedItemsets);
+        }
+    }
+
+    //the tree is only read after buildFPTree, so every suffix item becomes a task of its own and big conditional trees
+    //are split into more tasks. The parts are joined in the order of the sequential loop so the output is identical
+    private static FrequentItemsets mineInParallel(int minSupCount) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<GrowthTask> tasks = new ArrayList<>();
+            for (int item = dictionary.size() - 1; item >= 0; item--) {
+                GrowthTask task = new GrowthTask(fpTree, item, new int[]{item}, minSupCount);
+                tasks.add(task);
+                pool.execute(task);
+            }
+
+            FrequentItemsets frequentItemsets = new FrequentItemsets();
+            for (GrowthTask task : tasks) {
+                int item = task.pattern[0];
+                frequentItemsets.add(task.pattern, 1, dictionary.getSupport(item));
+                frequentItemsets.addAll(task.join());
+                completedMiningSteps++;
+                System.out.printf("item %d/%d: %s (%d/%d items)\n", (dictionary.size() - item), dictionary.size(),
+                        dictionary.getToken(item), completedMiningSteps, totalMiningSteps);
+            }
+            return frequentItemsets;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //mines every itemset that extends pattern (without pattern itself) from the conditional tree of item, the
+    //conditional tree is built inside the task
+    private static class GrowthTask extends RecursiveTask<FrequentItemsets> {
+        private static final long serialVersionUID = 1L;
+
+        private final FPTree tree; //tree the conditional tree of item is built from
+        private final int item;
+        private final int[] pattern;
+        private final int minSupCount;
+
+        GrowthTask(FPTree tree, int item, int[] pattern, int minSupCount) {
+            this.tree = tree;
+            this.item = item;
+            this.pattern = pattern;
+            this.minSupCount = minSupCount;
+        }
+
+        @Override
+        protected FrequentItemsets compute() {
+            FPTree conditionalTree = tree.buildConditionalTree(item, minSupCount);
+            FrequentItemsets frequentItemsets = new FrequentItemsets();
+            int[] items = conditionalTree.getItems();
+            if (items.length < MIN_FORK_ITEMS || conditionalTree.getSinglePath() != null) {
+                growth(conditionalTree, pattern, minSupCount, frequentItemsets);
+                return frequentItemsets;
+            }
+
+            //same loop as growth, each item is a part: its itemset and then its conditional tree, mined here if it is
+            //small or forked if it can hold MIN_FORK_ITEMS items or more (an item only has smaller ids below it)
+            FrequentItemsets[] parts = new FrequentItemsets[items.length];
+            GrowthTask[] forked = new GrowthTask[items.length];
+            for (int i = items.length - 1; i >= 0; i--) {
+                int[] extended = extend(pattern, items[i]);
+                parts[i] = new FrequentItemsets();
+                parts[i].add(extended, extended.length, conditionalTree.getSupport(items[i]));
+                if (i >= MIN_FORK_ITEMS) {
+                    forked[i] = new GrowthTask(conditionalTree, items[i], extended, minSupCount);
+                    forked[i].fork();
+                } else {
+                    growth(conditionalTree.buildConditionalTree(items[i], minSupCount), extended, minSupCount, parts[i]);
+                }
+            }
+            for (int i = 0; i < items.length; i++) {
+                frequentItemsets.addAll(parts[i]);
+                if (forked[i] != null) frequentItemsets.addAll(forked[i].join());
+            }
+            return frequentItemsets;
+        }
+    }
+
+    //FP-growth on a conditional tree: every item of the tree is added to the suffix, then its own conditional tree is
+    //mined, until the trees run out. A tree that is a single path has all its combinations added directly
+    static void growth(FPTree tree, int[] suffix, int minSupCount, FrequentItemsets frequentItemsets) {
+        if (tree.isEmpty()) return;
+
+        int[][] path = tree.getSinglePath();
+        if (path != null) {
+            addPathCombinations(path[0], path[1], 0, new int[path[0].length], 0, suffix, frequentItemsets);
+            return;
+        }
+
+        for (int item : tree.getItems()) {
+            int[] pattern = extend(suffix, item);
+            frequentItemsets.add(pattern, pattern.length, tree.getSupport(item));
+            growth(tree.buildConditionalTree(item, minSupCount), pattern, minSupCount, frequentItemsets);
+        }
+    }
+
+    //adds suffix + every combination of the path nodes, the support is the count of the deepest node picked
+    private static void addPathCombinations(int[] pathItems, int[] pathCounts, int start, int[] chosen, int chosenCount,
+                                            int[] suffix, FrequentItemsets frequentItemsets) {
+        for (int i = start; i < pathItems.length; i++) {
+            chosen[chosenCount] = pathItems[i];
+            int[] pattern = merge(chosen, chosenCount + 1, suffix);
+            frequentItemsets.add(pattern, pattern.length, pathCounts[i]);
+            addPathCombinations(pathItems, pathCounts, i + 1, chosen, chosenCount + 1, suffix, frequentItemsets);
+        }
+    }
+
+    //new pattern with the item added to the suffix, ids kept sorted
+    static int[] extend(int[] suffix, int item) {
+        int[] pattern = new int[suffix.length + 1];
+        int i = 0;
+        while (i < suffix.length && suffix[i] < item) {
+            pattern[i] = suffix[i];
+            i++;
+        }
+        pattern[i] = item;
+        System.arraycopy(suffix, i, pattern, i + 1, suffix.length - i);
+        return pattern;
+    }
+
+    //merges two sorted id arrays (path items all have smaller ids than the suffix items of their tree)
+    private static int[] merge(int[] items, int length, int[] suffix) {
+        int[] pattern = Arrays.copyOf(items, length + suffix.length);
+        System.arraycopy(suffix, 0, pattern, length, suffix.length);
+        Arrays.sort(pattern);
+        return pattern;
     }
 }
\ No newline at end of file
@@ -1,13 +1,15 @@
 import java.io.*;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FPGrowthApprox {
     private static double minSupport;
-    private static List<List<String>> transactions = new ArrayList<>();
-    private static Map<String, Integer> itemSupport = new HashMap<>();
-    private static List<String> frequentItems;
+    private static List<int[]> transactions = new ArrayList<>(); //transactions as provisional item ids
+    private static int transactionCount = 0; //# of transactions in the dataset
+    private static ItemDictionary.Builder itemIds = new ItemDictionary.Builder();
+    private static ItemDictionary dictionary; //items frequent in the sample, ranked by their sample support
     private static FPTree fpTree;
 
     //Parameters for the VC-dimension sampling
@@ -25,41 +27,101 @@ public class FPGrowthApprox {
 
     private static int minSupReturn = 0;
 
+    private static boolean verify = false; //recount the sample results on the full data and drop false positives
+    private static long verifyTime = 0;
+
+    //streaming mode: one pass over the files keeps the d-bound and a reservoir of at most sampleCapacity transactions,
+    //the dataset itself is never held in memory
+    private static boolean streaming = false;
+    private static final int CONSERVATIVE_DBOUND = 100; //d-bound the default capacity is sized for
+    private static int sampleCapacity = 0; //0 = sample size for CONSERVATIVE_DBOUND
+
     public static Map<List<String>, Integer> run(String inputDir, double support) throws IOException {
         minSupport = support;
         transactions.clear();
-        itemSupport.clear();
-
-        readTransactionsFromFolder(inputDir);
-        int dBound = computeDBound();
-        dboundforreturn = dBound;
+        itemIds = new ItemDictionary.Builder();
 
-        int sampleSize = Math.min(calculateSampleSize(dBound), transactions.size());
-        List<List<String>> sample = reservoirSample(transactions, sampleSize);
+        List<int[]> sample = takeSample(inputDir);
 
         int minSupCount = Math.max(1, (int) Math.ceil(sample.size() * (minSupport - epsilon)));
         //minSupCount = min frequency threshold
         minSupReturn = minSupCount;
 
         buildFPTree(sample, minSupCount);
-        return mineFrequentItemsets(minSupCount);
+        FrequentItemsets itemsets = mineFrequentItemsets(minSupCount);
+        if (verify) {
+            itemsets = verifyOnFullData(inputDir, itemsets, (int) Math.ceil(transactionCount * minSupport));
+        }
+        return itemsets.decode(dictionary);
+    }
+
+    //with verify on, the supports returned are the exact ones and itemsets below minSupport on the full data are
+    //dropped, frequent itemsets the sample missed (probability delta) are still missing
+    public static void setVerify(boolean exact) {
+        verify = exact;
+    }
+
+    //streaming = true reads the dataset once and only keeps the sample, capacity = most transactions the reservoir
+    //holds (0 = enough for a d-bound of CONSERVATIVE_DBOUND). The reservoir is thinned to the size the final d-bound
+    //asks for. If the d-bound grows past what the capacity covers, the reservoir is dropped and a second pass samples
+    //the size the final d-bound asks for, so the sample is never smaller than the guarantee needs
+    public static void setStreaming(boolean stream, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("sample capacity must be positive");
+        }
+        streaming = stream;
+        sampleCapacity = capacity;
     }
 
     public static int getTransactionCount() {
-        return transactions.size();
+        return transactionCount;
     }
 
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 2) {
-            System.out.println("Usage: <folder> <minSupport [0,1]>");
+        if (args.length < 2) {
+            System.out.println("Usage: <folder> <minSupport [0,1]> [verify] [stream]");
             return;
         }
         String input = args[0];
         minSupport = Double.parseDouble(args[1]);
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("verify")) verify = true;
+            else if (args[i].equalsIgnoreCase("stream")) streaming = true;
+            else throw new IllegalArgumentException("unknown option " + args[i]);
+        }
 
         long start = System.currentTimeMillis();
-        readTransactionsFromFolder(input);
+
+        // d-bound, sample size and reservoir sample, from memory or in one streaming pass
+        List<int[]> sample = takeSample(input);
+
+        // Adjust minimum support count for sample (Lemma 5.1)
+        int minSupCount = Math.max(1, (int) Math.ceil(sample.size() * (minSupport - epsilon)));
+        minSupReturn = minSupCount;
+
+        // Build FP-tree from sample
+        buildFPTree(sample, minSupCount);
+
+        // Mine frequent itemsets from sample
+        FrequentItemsets itemsets = mineFrequentItemsets(minSupCount);
+
+        // Optional exact pass over the full data
+        if (verify) {
+            long verifyStart = System.currentTimeMillis();
+            itemsets = verifyOnFullData(input, itemsets, (int) Math.ceil(transactionCount * minSupport));
+            verifyTime = System.currentTimeMillis() - verifyStart;
+        }
+
+        saveResults("output", itemsets, minSupport, System.currentTimeMillis() - start);
+    }
+
+    // Reads the dataset and takes the sample (Algorithm 1 in paper), sets the d-bound, sample size and transaction count
+    private static List<int[]> takeSample(String path) throws IOException {
+        if (streaming) return streamSample(path);
+
+        readTransactionsFromFolder(path);
+        transactionCount = transactions.size();
 
         // Compute d-bound (VC-dimension upper bound)
         long dboundStart = System.currentTimeMillis();
@@ -70,59 +132,166 @@ public class FPGrowthApprox {
         // Calculate sample size using VC-dimension theory (Theorem 3.8 in paper)
         sampleSize = Math.min(calculateSampleSize(dBound), transactions.size());
 
-        // Take reservoir sample (Algorithm 1 in paper)
-        List<List<String>> sample = reservoirSample(transactions, sampleSize);
-
-        // Adjust minimum support count for sample (Lemma 5.1)
-        int minSupCount = Math.max(1, (int) Math.ceil(sample.size() * (minSupport - epsilon)));
-        minSupReturn = minSupCount;
+        // Take reservoir sample
+        return reservoirSample(transactions, sampleSize);
+    }
 
-        // Build FP-tree from sample
-        buildFPTree(sample, minSupCount);
+    // Streaming version: every line updates the d-bound and goes through the reservoir, then the reservoir is thinned
+    // to the sample size of the final d-bound. A uniform subset of a uniform sample is still a uniform sample. The
+    // d-bound only grows, so once the sample size it asks for is over the capacity (and there are more lines than the
+    // reservoir holds) the reservoir cannot be enough: it is dropped and only the d-bound is kept for the rest of the
+    // pass, then a second pass samples the size of the final d-bound
+    private static List<int[]> streamSample(String path) throws IOException {
+        long passStart = System.currentTimeMillis();
+        int capacity = sampleCapacity > 0 ? sampleCapacity : calculateSampleSize(CONSERVATIVE_DBOUND);
+        List<int[]> reservoir = new ArrayList<>();
+        DBoundState dBoundState = new DBoundState();
+        Random rand = new Random();
+        transactionCount = 0;
 
-        // Mine frequent itemsets from sample
-        Map<List<String>, Integer> itemsets = mineFrequentItemsets(minSupCount);
+        LineParser parser = new LineParser();
+        for (File f : FPGrowth.listInputFiles(path)) {
+            if (!f.isFile()) continue;
+            try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    int length = parser.parse(line);
+                    dBoundState.offer(parser.ids, length);
+                    if (reservoir != null) {
+                        // Standard reservoir sampling algorithm (Vitter's Method), only kept lines are copied
+                        if (reservoir.size() < capacity) {
+                            reservoir.add(Arrays.copyOf(parser.ids, length));
+                        } else {
+                            int j = rand.nextInt(transactionCount + 1);
+                            if (j < capacity) reservoir.set(j, Arrays.copyOf(parser.ids, length));
+                        }
+                    }
+                    transactionCount++;
+                    if (reservoir != null && transactionCount > capacity
+                            && sampleSizeFor(dBoundState.getDBound()) > capacity) {
+                        reservoir = null;
+                    }
+                }
+            }
+        }
+        dboundTime = System.currentTimeMillis() - passStart; //the d-bound is computed along the whole pass
+        dboundforreturn = dBoundState.getDBound();
+
+        sampleSize = Math.min(calculateSampleSize(dboundforreturn), transactionCount);
+        if (reservoir == null) {
+            System.out.printf("d-bound %d asks for %d transactions, more than the capacity %d: sampling in a second pass\n",
+                    dboundforreturn, sampleSize, capacity);
+            return sampleFiles(path, sampleSize, rand);
+        }
+        // keep a random sampleSize of the reservoir (partial Fisher-Yates shuffle)
+        for (int i = 0; i < sampleSize; i++) {
+            Collections.swap(reservoir, i, i + rand.nextInt(reservoir.size() - i));
+        }
+        return new ArrayList<>(reservoir.subList(0, sampleSize));
+    }
 
+    // Second pass of the streaming mode: a reservoir of exactly k transactions over the files
+    private static List<int[]> sampleFiles(String path, int k, Random rand) throws IOException {
+        List<int[]> reservoir = new ArrayList<>(k);
+        LineParser parser = new LineParser();
+        int seen = 0;
+        for (File f : FPGrowth.listInputFiles(path)) {
+            if (!f.isFile()) continue;
+            try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (reservoir.size() < k) {
+                        int length = parser.parse(line);
+                        reservoir.add(Arrays.copyOf(parser.ids, length));
+                    } else {
+                        int j = rand.nextInt(seen + 1);
+                        if (j < k) {
+                            int length = parser.parse(line);
+                            reservoir.set(j, Arrays.copyOf(parser.ids, length));
+                        }
+                    }
+                    seen++;
+                }
+            }
+        }
+        return reservoir;
+    }
 
-        saveResults("output", itemsets, minSupport, System.currentTimeMillis() - start);
+    // Splits a line into provisional item ids, sorted and without repeats, in buffers reused from line to line
+    private static class LineParser {
+        private String[] tokens = new String[64];
+        private int[] ids = new int[64];
+
+        int parse(String line) {
+            int length;
+            while ((length = FPGrowth.splitLine(line, tokens)) < 0) tokens = new String[tokens.length * 2];
+            if (ids.length < length) ids = new int[tokens.length];
+            for (int i = 0; i < length; i++) ids[i] = itemIds.intern(tokens[i]);
+            Arrays.sort(ids, 0, length);
+            int distinct = 0;
+            for (int i = 0; i < length; i++) {
+                if (distinct == 0 || ids[i] != ids[distinct - 1]) ids[distinct++] = ids[i];
+            }
+            return distinct;
+        }
     }
 
     // Computes the d-bound (upper bound for VC-dimension) - Section 4.1 in paper
     private static int computeDBound() {
-        int q = 1;
-        Set<Set<String>> seen = new HashSet<>();
-        List<Set<String>> list = new ArrayList<>();
+        DBoundState dBoundState = new DBoundState();
+        for (int[] t : transactions) {
+            dBoundState.offer(t, t.length);
+        }
+        return dBoundState.getDBound();
+    }
 
-        // This implements the greedy algorithm to find maximum q where there are
-        // at least q transactions of length ≥ q (Definition 4.4)
-        for (List<String> t : transactions) {
-            Set<String> set = new HashSet<>(t);
-            if (set.size() < q || !seen.add(set)) continue;
-            list.add(set);
+    // This implements the greedy algorithm to find maximum q where there are
+    // at least q transactions of length ≥ q (Definition 4.4), one transaction at a time.
+    // Only the distinct transactions of length ≥ q are kept (fewer than q of them): a repeat of a dropped transaction
+    // is shorter than q and skipped anyway, so the memory is bounded by the d-bound and not by the dataset
+    private static class DBoundState {
+        private int q = 1;
+        private final Set<Set<Integer>> kept = new HashSet<>();
+
+        //t = first length items of the array, without repeats
+        void offer(int[] t, int length) {
+            if (length < q) return;
+            Set<Integer> set = new HashSet<>();
+            for (int i = 0; i < length; i++) set.add(t[i]);
+            if (!kept.add(set)) return;
 
             // Maintain the largest q where we've seen ≥ q transactions of length ≥ q
-            while (list.size() >= q) {
+            while (kept.size() >= q) {
                 q++;
                 final int qFinal = q;
-                list.removeIf(s -> s.size() < qFinal);
+                kept.removeIf(s -> s.size() < qFinal);
             }
         }
-        return q - 1;
+
+        int getDBound() {
+            return q - 1;
+        }
     }
 
     // Calculates sample size using VC-dimension theory - Theorem 3.8 in paper
     private static int calculateSampleSize(int d) {
+        int size = sampleSizeFor(d);
+        System.out.println(size);
+        return size;
+    }
+
+    //same without printing, checked on every line of the streaming pass
+    private static int sampleSizeFor(int d) {
         double eps = epsilon;
         // Equation (2) from paper: sample size depends on VC-dimension (d), ε, and δ
         double size = (4 * C / (eps * eps)) * (d + Math.log(1.0 / delta));
-        System.out.println((int)Math.ceil(size));
         return (int) Math.ceil(size);
     }
 
     // Reservoir sampling algorithm - Section 3 in paper
-    private static List<List<String>> reservoirSample(List<List<String>> data, int k) {
+    private static List<int[]> reservoirSample(List<int[]> data, int k) {
         if (k >= data.size()) return new ArrayList<>(data);
-        List<List<String>> result = new ArrayList<>(data.subList(0, k));
+        List<int[]> result = new ArrayList<>(data.subList(0, k));
         Random rand = new Random();
 
         // Standard reservoir sampling algorithm (Vitter's Method)
@@ -133,46 +302,93 @@ public class FPGrowthApprox {
         return result;
     }
 
-    private static void buildFPTree(List<List<String>> sample, int minSup) {
+    private static void buildFPTree(List<int[]> sample, int minSup) {
         // Standard FP-tree construction (not part of approximation)
-        itemSupport.clear();
-        for (List<String> t : sample)
-            for (String item : t)
-                itemSupport.merge(item, 1, Integer::sum);
+        int[] counts = new int[itemIds.size()];
+        for (int[] t : sample)
+            for (int item : t)
+                counts[item]++;
+
+        dictionary = itemIds.build(counts, minSup);
+
+        fpTree = FPTree.create(FPTree.Storage.ARRAYS, dictionary.size());
+        int[] filtered = new int[16];
+        for (int[] t : sample) {
+            int length = 0;
+            if (filtered.length < t.length) filtered = new int[t.length];
+            for (int item : t) {
+                int id = dictionary.fromProvisional(item);
+                if (id >= 0) filtered[length++] = id;
+            }
+            Arrays.sort(filtered, 0, length);
+            fpTree.insertTransaction(filtered, length, 1);
+        }
+    }
 
-        frequentItems = itemSupport.entrySet().stream()
-                .filter(e -> e.getValue() >= minSup)
-                .sorted((a, b) -> b.getValue().equals(a.getValue()) ?
-                        a.getKey().compareTo(b.getKey()) : b.getValue() - a.getValue())
-                .map(Map.Entry::getKey).collect(Collectors.toList());
+    private static FrequentItemsets mineFrequentItemsets(int minSup) {
+        // Standard FP-growth mining (not part of approximation)
+        FrequentItemsets result = new FrequentItemsets();
+        FPGrowth.growth(fpTree, new int[0], minSup, result);
+        return result;
+    }
 
-        Map<String, Integer> order = new HashMap<>();
-        for (int i = 0; i < frequentItems.size(); i++) {
-            order.put(frequentItems.get(i), i);
+    // Exact verification pass (not part of the paper): the itemsets found on the sample are indexed in a trie and
+    // every file is streamed once with its lines split across threads, each thread counting into its own array and
+    // the arrays being summed at the end. Only the itemsets that reach the true min support count are kept
+    private static FrequentItemsets verifyOnFullData(String path, FrequentItemsets candidates, int trueMinSupCount) throws IOException {
+        ItemsetTrie trie = new ItemsetTrie(candidates);
+        int[] counts = new int[candidates.size()];
+        for (File f : FPGrowth.listInputFiles(path)) {
+            if (!f.isFile()) continue;
+            try (Stream<String> lines = Files.lines(f.toPath())) {
+                SupportCounter fileCounts = lines.parallel().collect(() -> new SupportCounter(trie, candidates.size()),
+                        SupportCounter::accept, SupportCounter::merge);
+                for (int i = 0; i < counts.length; i++) counts[i] += fileCounts.counts[i];
+            }
         }
 
-        fpTree = new FPTree();
-        for (List<String> t : sample) {
-            List<String> filtered = t.stream()].filter(order::containsKey).sorted(Comparator.comparingInt(order::get)).collect(Collectors.toList());
-            fpTree.insertTransaction(filtered);
+        FrequentItemsets verified = new FrequentItemsets();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (counts[i] >= trueMinSupCount) {
+                verified.add(candidates.getItemset(i), candidates.getItemset(i).length, counts[i]);
+            }
         }
+        return verified;
     }
 
-    private static Map<List<String>, Integer> mineFrequentItemsets(int minSup) {
-        // Standard FP-growth mining (not part of approximation)
-        Map<List<String>, Integer> result = new HashMap<>();
-        for (String item : frequentItems) {
-            result.put(Collections.singletonList(item), itemSupport.get(item));
-            for (Map.Entry<List<String>, Integer> entry :
-                    fpTree.findConditionalPatterns(item).entrySet()) {
-                if (entry.getValue() >= minSup) {
-                    List<String> pattern = new ArrayList<>(entry.getKey());
-                    pattern.add(item);
-                    result.put(pattern, entry.getValue());
-                }
+    // Counts the sample itemsets in the lines one thread gets, buffers are reused from line to line
+    private static class SupportCounter {
+        private final ItemsetTrie trie;
+        private final int[] counts;
+        private String[] tokens = new String[64];
+        private int[] ids = new int[64];
+
+        SupportCounter(ItemsetTrie trie, int candidateCount) {
+            this.trie = trie;
+            this.counts = new int[candidateCount];
+        }
+
+        void accept(String line) {
+            int length;
+            while ((length = FPGrowth.splitLine(line, tokens)) < 0) tokens = new String[tokens.length * 2];
+            if (ids.length < length) ids = new int[tokens.length];
+            // keep the items the sample dictionary knows, sorted and without repeats
+            int n = 0;
+            for (int i = 0; i < length; i++) {
+                int id = dictionary.fromProvisional(itemIds.lookup(tokens[i]));
+                if (id >= 0) ids[n++] = id;
+            }
+            Arrays.sort(ids, 0, n);
+            int distinct = 0;
+            for (int i = 0; i < n; i++) {
+                if (distinct == 0 || ids[i] != ids[distinct - 1]) ids[distinct++] = ids[i];
             }
+            trie.count(ids, distinct, counts);
+        }
+
+        void merge(SupportCounter other) {
+            for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
         }
-        return result;
     }
 
     private static void readTransactionsFromFolder(String path) throws IOException {
@@ -180,21 +396,21 @@ public class FPGrowthApprox {
             try (BufferedReader br = new BufferedReader(new FileReader(f))) {
                 String line;
                 while ((line = br.readLine()) != null)
-                    transactions.add(Arrays.stream(line.split("[\\s,]+")).filter(s -> !s.isEmpty()).collect(Collectors.toList()));
+                    transactions.add(Arrays.stream(line.split("[\\s,]+")).filter(s -> !s.isEmpty()).mapToInt(itemIds::intern).distinct().toArray());
             }
         }
     }
 
 
-    private static void saveResults(String outputFolder, Map<List<String>, Integer> frequentItemsets, double minSup, long computationTime) throws IOException {
+    private static void saveResults(String outputFolder, FrequentItemsets frequentItemsets, double minSup, long computationTime) throws IOException {
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         String outputFile = outputFolder + "/frequent_itemsets_" + timestamp + ".txt";
-        int trueMinSupCount = (int) Math.ceil(transactions.size() * minSup);
+        int trueMinSupCount = (int) Math.ceil(transactionCount * minSup);
         try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
             writer.println("Minimum Support: " + minSup);
-            writer.println("Minimum Support Count: " +(int) Math.ceil(transactions.size() * minSup));
-            writer.println("Transactions in database: " + transactions.size());
-            writer.println("Frequent items count: " + frequentItems.size());
+            writer.println("Minimum Support Count: " +(int) Math.ceil(transactionCount * minSup));
+            writer.println("Transactions in database: " + transactionCount);
+            writer.println("Frequent items count: " + dictionary.size());
             writer.println("Frequent itemsets count: " + frequentItemsets.size());
             writer.println("Computation Time: " + computationTime + " ms");
 
@@ -205,16 +421,19 @@ public class FPGrowthApprox {
             writer.println("epsilon: " + epsilon);
             writer.println("delta: " + delta);
             writer.println("d-bound (q): " + dboundforreturn);
+            if (verify) {
+                writer.println("Verified on full data (exact supports): " + verifyTime + " ms");
+            }
             writer.println();
             writer.println();
             writer.println("Frequent Itemsets:");
 
-            List<Map.Entry<List<String>, Integer>> sortedEntries =
-                    new ArrayList<>(frequentItemsets.entrySet());
+            Integer[] order = new Integer[frequentItemsets.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
 
-            sortedEntries.sort((e1, e2) -> {int cmp = e2.getValue().compareTo(e1.getValue());
+            Arrays.sort(order, (i1, i2) -> {int cmp = Integer.compare(frequentItemsets.getSupport(i2), frequentItemsets.getSupport(i1));
                 if (cmp == 0)
-                    return Integer.compare(e1.getKey().size(), e2.getKey().size());
+                    return Integer.compare(frequentItemsets.getItemset(i1).length, frequentItemsets.getItemset(i2).length);
 
                 return cmp;
             });
@@ -224,8 +443,8 @@ public class FPGrowthApprox {
             //        writer.println(entry.getKey() + " appears " + entry.getValue() + " times.");
             //    }
             //}
-            for (Map.Entry<List<String>, Integer> entry : sortedEntries) {
-                writer.println(entry.getKey() + " appears " + entry.getValue() + " times.");
+            for (int i : order) {
+                writer.println(dictionary.decode(frequentItemsets.getItemset(i)) + " appears " + frequentItemsets.getSupport(i) + " times.");
             }
         }
     }
@@ -1,83 +1,106 @@
-import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+//contract shared by the FP-tree layouts: items are ids from the ItemDictionary and every transaction is inserted with
+//its ids sorted, so the paths of the tree always go from smaller ids (more frequent) to larger ids
+abstract class FPTree {
+    //how the nodes of a tree are stored
+    enum Storage {
+        NODES, //one Node object per node (NodeFPTree)
+        ARRAYS, //parallel int arrays on the heap (ArrayFPTree)
+        OFF_HEAP //parallel int columns in direct buffers outside the heap (ArrayFPTree)
+    }
 
-class FPTree {
-    private final Node root;
-    private final Map<String, HeaderEntry> headerTable; //header table for O(1) operations
-    private final AtomicInteger nodeCount = new AtomicInteger(0); //total nodes in tree
-    //private int nodeCount = new Integer(0);
-    //not too sure what an AtomicInteger is even after googling it
+    protected final int[] supports; //# of transactions containing each item that went through this tree
 
-    //header table
-    private static class HeaderEntry {
-        Node head; //first node of an item
-        Node tail; //last node of the same item
-        int totalSupport; //# of times item appears in database
+    //itemCount = number of item ids that can be inserted (ids 0 to itemCount - 1)
+    protected FPTree(int itemCount) {
+        this.supports = new int[itemCount];
     }
 
-    public FPTree() {
-        this.root = new Node(null);
-        this.headerTable = new HashMap<>();
+    static FPTree create(Storage storage, int itemCount) {
+        switch (storage) {
+            case NODES:
+                return new NodeFPTree(itemCount);
+            case OFF_HEAP:
+                return new ArrayFPTree(itemCount, true);
+            default:
+                return new ArrayFPTree(itemCount, false);
+        }
     }
 
+    //inserts the first length ids of a transaction (sorted by id) as a path that stands for count transactions
+    public abstract void insertTransaction(int[] transaction, int length, int count);
 
-    public Node insertTransaction(List<String> transaction) {
-        Node currentNode = root;
+    //receives the prefix path of one node: path[0..length) holds the items from the node's parent up to the root
+    //(descending ids) and count is the count of the node. The buffer is reused for the next path
+    interface PathVisitor {
+        void visit(int[] path, int length, int count);
+    }
 
-        //for each item in transaction
-        for (String item : transaction) {
-            //if child has the same item inc count
-            Node child = currentNode.getChild(item);
-            if (child != null) {
-                child.incCount();
-            } else {
-                //new item create node
-                child = new Node(item);
-                currentNode.addChild(child);
-                nodeCount.incrementAndGet();
-                //nodeCount++;
-                //atomic increment++ method (good for memory)
+    //walks the prefix path of every node of the item into the buffer (big enough for item ids, paths never repeat an
+    //id and only hold ids smaller than the item) and hands it to the visitor, nothing is allocated per path
+    protected abstract void forEachPrefixPath(int item, int[] buffer, PathVisitor visitor);
 
-                //header table update O(1)
-                HeaderEntry entry = headerTable.computeIfAbsent(item, k -> new HeaderEntry());
-                if (entry.head == null) {
-                    entry.head = child;
-                } else {
-                    entry.tail.next = child;
-                }
-                entry.tail = child;
-                entry.totalSupport += child.count;
-            }
-            currentNode = child;
-        }
-        return currentNode;
-    }
+    //returns the items (top down) in [0] and their node counts in [1] if the tree is one path, null if it branches
+    public abstract int[][] getSinglePath();
+
+    public abstract boolean isEmpty();
+
+    //empty tree with the same storage as this one (used for the conditional trees)
+    protected abstract FPTree newTree(int itemCount);
 
-    public Map<List<String>, Integer> findConditionalPatterns(String item) {
-        Map<List<String>, Integer> conditionalPatterns = new HashMap<>();
-        HeaderEntry entry = headerTable.get(item);
+    //builds the conditional FP-tree of an item from its conditional pattern base, keeping only the items that are
+    //frequent within the base (prefix paths only hold ids smaller than the item, so the tree is sized to the item).
+    //The base is walked twice straight from the tree, once to count and once to insert, so no path is ever stored
+    public FPTree buildConditionalTree(int item, int minSupCount) {
+        return buildConditionalTree(item, countConditionalSupports(item), minSupCount, Integer.MAX_VALUE);
+    }
 
-        //if item isn't in table return empty
-        if (entry == null) return conditionalPatterns;
+    //support of each item inside the conditional pattern base of an item (indexed by id, ids below the item)
+    public int[] countConditionalSupports(int item) {
+        int[] conditionalSupport = new int[item];
+        forEachPrefixPath(item, new int[item], (path, length, count) -> {
+            for (int i = 0; i < length; i++) {
+                conditionalSupport[path[i]] += count;
+            }
+        });
+        return conditionalSupport;
+    }
 
-        Node node = entry.head;
-        //for each node in the linked list
-        while (node != null) {
-            //to store prefixes (capacity 16 for efficiency)
-            List<String> prefixPath = new ArrayList<>(16);
-            Node parent = node.parent;
-            //tree traversal to find prefix path
-            while (parent != null && parent.item != null) {
-                prefixPath.add(parent.item);
-                parent = parent.parent;
+    //conditional FP-tree of an item with only the items whose conditional support is in [minSupCount, maxSupCount)
+    public FPTree buildConditionalTree(int item, int[] conditionalSupport, int minSupCount, int maxSupCount) {
+        FPTree conditionalTree = newTree(item);
+        int[] filtered = new int[item];
+        forEachPrefixPath(item, new int[item], (path, length, count) -> {
+            //paths come bottom up, the tree needs them top down (ascending ids)
+            int filteredLength = 0;
+            for (int i = length - 1; i >= 0; i--) {
+                int support = conditionalSupport[path[i]];
+                if (support >= minSupCount && support < maxSupCount) {
+                    filtered[filteredLength++] = path[i];
+                }
             }
-            if (!prefixPath.isEmpty()) {
-                //saves prefix path into all paterns
-                Collections.reverse(prefixPath);
-                conditionalPatterns.merge(prefixPath, node.count, Integer::sum);
+            if (filteredLength > 0) {
+                conditionalTree.insertTransaction(filtered, filteredLength, count);
             }
-            node = node.next;
+        });
+        return conditionalTree;
+    }
+
+    //ids of the items in the tree (all of them are frequent in a conditional tree)
+    public int[] getItems() {
+        int count = 0;
+        for (int support : supports) {
+            if (support > 0) count++;
+        }
+        int[] items = new int[count];
+        count = 0;
+        for (int item = 0; item < supports.length; item++) {
+            if (supports[item] > 0) items[count++] = item;
         }
-        return conditionalPatterns;
+        return items;
+    }
+
+    //# of transactions containing the item that went through this tree
+    public int getSupport(int item) {
+        return item < supports.length ? supports[item] : 0;
     }
 }
\ No newline at end of file
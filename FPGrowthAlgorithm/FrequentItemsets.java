@@ -0,0 +1,53 @@
+import java.util.*;
+
+//mined itemsets kept as sorted arrays of item ids with their supports (FP-growth finds each itemset once so there is
+//no need to hash them while mining)
+class FrequentItemsets {
+    private int[][] itemsets = new int[64][];
+    private int[] supports = new int[64];
+    private int size = 0;
+
+    //copies the first length ids of the itemset (already sorted)
+    void add(int[] itemset, int length, int support) {
+        if (size == itemsets.length) {
+            itemsets = Arrays.copyOf(itemsets, size * 2);
+            supports = Arrays.copyOf(supports, size * 2);
+        }
+        itemsets[size] = Arrays.copyOf(itemset, length);
+        supports[size] = support;
+        size++;
+    }
+
+    //appends the itemsets of other, the arrays are shared since itemsets are never changed once added
+    void addAll(FrequentItemsets other) {
+        if (size + other.size > itemsets.length) {
+            int capacity = Math.max(size + other.size, itemsets.length * 2);
+            itemsets = Arrays.copyOf(itemsets, capacity);
+            supports = Arrays.copyOf(supports, capacity);
+        }
+        System.arraycopy(other.itemsets, 0, itemsets, size, other.size);
+        System.arraycopy(other.supports, 0, supports, size, other.size);
+        size += other.size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] getItemset(int i) {
+        return itemsets[i];
+    }
+
+    int getSupport(int i) {
+        return supports[i];
+    }
+
+    //turns the ids back into tokens
+    Map<List<String>, Integer> decode(ItemDictionary dictionary) {
+        Map<List<String>, Integer> decoded = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            decoded.put(dictionary.decode(itemsets[i]), supports[i]);
+        }
+        return decoded;
+    }
+}
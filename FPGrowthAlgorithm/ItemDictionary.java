@@ -0,0 +1,91 @@
+import java.util.*;
+
+//maps item tokens to dense int ids ranked by descending support (id 0 = most frequent, ties broken by token) so the
+//tree and the miner only work on ints, tokens are only looked at again when results are decoded for output
+class ItemDictionary {
+    private final String[] tokens; //token of each id
+    private final int[] supports; //support of each id
+    private final int[] idOfProvisional; //provisional id -> ranked id (-1 if infrequent)
+
+    //interns tokens to provisional ids in the order they are read (supports are not known yet)
+    static class Builder {
+        private final Map<String, Integer> provisionalIds = new HashMap<>();
+        private final List<String> tokens = new ArrayList<>();
+
+        int intern(String token) {
+            Integer id = provisionalIds.get(token);
+            if (id == null) {
+                id = tokens.size();
+                provisionalIds.put(token, id);
+                tokens.add(token);
+            }
+            return id;
+        }
+
+        //provisional id of a token without adding it, -1 if it was never interned (safe to call from several threads
+        //once interning is done)
+        int lookup(String token) {
+            Integer id = provisionalIds.get(token);
+            return id == null ? -1 : id;
+        }
+
+        int size() {
+            return tokens.size();
+        }
+
+        //ranks the tokens with count >= minSupCount (counts indexed by provisional id)
+        ItemDictionary build(int[] counts, int minSupCount) {
+            List<Integer> frequent = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                if (counts[i] >= minSupCount) frequent.add(i);
+            }
+            frequent.sort((a, b) -> {
+                int cmp = Integer.compare(counts[b], counts[a]);
+                if (cmp == 0) return tokens.get(a).compareTo(tokens.get(b));
+                return cmp;
+            });
+            return new ItemDictionary(frequent, tokens, counts);
+        }
+    }
+
+    private ItemDictionary(List<Integer> rankedProvisionalIds, List<String> provisionalTokens, int[] counts) {
+        tokens = new String[rankedProvisionalIds.size()];
+        supports = new int[rankedProvisionalIds.size()];
+        idOfProvisional = new int[provisionalTokens.size()];
+        Arrays.fill(idOfProvisional, -1);
+        for (int id = 0; id < rankedProvisionalIds.size(); id++) {
+            int provisional = rankedProvisionalIds.get(id);
+            tokens[id] = provisionalTokens.get(provisional);
+            supports[id] = counts[provisional];
+            idOfProvisional[provisional] = id;
+        }
+    }
+
+    //ranked id of a provisional id, -1 if the item is not frequent
+    int fromProvisional(int provisionalId) {
+        return provisionalId >= 0 && provisionalId < idOfProvisional.length ? idOfProvisional[provisionalId] : -1;
+    }
+
+    String getToken(int id) {
+        return tokens[id];
+    }
+
+    int getSupport(int id) {
+        return supports[id];
+    }
+
+    int size() {
+        return tokens.length;
+    }
+
+    //tokens of an itemset, sorted so itemsets decoded by dictionaries with a different ranking (exact run vs sample)
+    //still compare equal
+    List<String> decode(int[] itemset) {
+        List<String> decoded = new ArrayList<>(itemset.length);
+        for (int id : itemset) {
+            decoded.add(tokens[id]);
+        }
+        Collections.sort(decoded);
+        return decoded;
+    }
+}
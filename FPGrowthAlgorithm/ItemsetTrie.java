@@ -0,0 +1,80 @@
+import java.util.*;
+
+//prefix trie over a fixed set of itemsets (ids sorted ascending), used to count their exact supports in one scan of
+//the data: a sorted transaction is walked down the trie so only the subsets of it that are indexed get visited.
+//The trie is only read while counting, so several threads can count into their own arrays at the same time
+class ItemsetTrie {
+    private final TrieNode root = new TrieNode();
+    private int size = 0;
+
+    //children are kept in two parallel arrays sorted by item so they can be merged against a sorted transaction
+    private static class TrieNode {
+        int[] items = new int[2];
+        TrieNode[] children = new TrieNode[2];
+        int childCount;
+        int id = -1; //index of the itemset ending here, -1 if none
+        int minHeight = Integer.MAX_VALUE; //fewest items below this node before an itemset ends
+
+        TrieNode getOrAddChild(int item) {
+            int pos = Arrays.binarySearch(items, 0, childCount, item);
+            if (pos >= 0) return children[pos];
+            pos = -(pos + 1);
+            if (childCount == items.length) {
+                items = Arrays.copyOf(items, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(items, pos, items, pos + 1, childCount - pos);
+            System.arraycopy(children, pos, children, pos + 1, childCount - pos);
+            TrieNode child = new TrieNode();
+            items[pos] = item;
+            children[pos] = child;
+            childCount++;
+            return child;
+        }
+    }
+
+    //indexes every itemset of the collection, the itemset at index i gets id i
+    ItemsetTrie(FrequentItemsets itemsets) {
+        for (int i = 0; i < itemsets.size(); i++) {
+            int[] itemset = itemsets.getItemset(i);
+            TrieNode node = root;
+            for (int j = 0; j < itemset.length; j++) {
+                node.minHeight = Math.min(node.minHeight, itemset.length - j);
+                node = node.getOrAddChild(itemset[j]);
+            }
+            node.id = i;
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    //adds 1 to counts[id] for every indexed itemset contained in the transaction (first length ids, sorted, distinct)
+    void count(int[] transaction, int length, int[] counts) {
+        count(root, transaction, 0, length, counts);
+    }
+
+    private void count(TrieNode node, int[] transaction, int start, int end, int[] counts) {
+        if (node.id >= 0) counts[node.id]++;
+        //the items left have to be enough to finish an itemset
+        int last = end - node.minHeight;
+        int i = start;
+        int c = 0;
+        //merge the sorted children with the sorted items
+        while (i <= last && c < node.childCount) {
+            int item = transaction[i];
+            int childItem = node.items[c];
+            if (item < childItem) {
+                i++;
+            } else if (item > childItem) {
+                c++;
+            } else {
+                count(node.children[c], transaction, i + 1, end, counts);
+                i++;
+                c++;
+            }
+        }
+    }
+}
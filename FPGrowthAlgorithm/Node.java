@@ -3,19 +3,19 @@ import java.util.Map;
 import java.util.*;
 
 class Node {
-    final String item;
+    final int item; //item id from the ItemDictionary (-1 for the root)
     int count; //support count for node (how many same items)
     Node parent;
     Node next;
-    final Map<String, Node> children; //map to store all child nodes
+    final Map<Integer, Node> children; //map to store all child nodes
     //creates a node of count 1 and sets children to a new hashmap with capacity 4 for efficiency)
-    public Node(String item) {
+    public Node(int item) {
         this.item = item;
         this.count = 1;
         this.children = new HashMap<>(4);
     }
     //getter method
-    public Node getChild(String item) {
+    public Node getChild(int item) {
         return children.get(item);
     }
     //setter/adder method
@@ -27,4 +27,8 @@ class Node {
     public void incCount() {
         count++;
     }
+    //increases count of node by the count of a weighted path
+    public void incCount(int amount) {
+        count += amount;
+    }
 }
\ No newline at end of file
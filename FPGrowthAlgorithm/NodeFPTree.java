@@ -0,0 +1,107 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//FP-tree made of Node objects, each node keeps its children in a HashMap
+class NodeFPTree extends FPTree {
+    private final Node root;
+    private final HeaderEntry[] headerTable; //header table indexed by item id for O(1) operations
+    private final AtomicInteger nodeCount = new AtomicInteger(0); //total nodes in tree
+    //private int nodeCount = new Integer(0);
+    //not too sure what an AtomicInteger is even after googling it
+
+    //header table
+    private static class HeaderEntry {
+        Node head; //first node of an item
+        Node tail; //last node of the same item
+    }
+
+    //itemCount = number of item ids that can be inserted (ids 0 to itemCount - 1)
+    public NodeFPTree(int itemCount) {
+        super(itemCount);
+        this.root = new Node(-1);
+        this.headerTable = new HeaderEntry[itemCount];
+    }
+
+
+    //inserts the first length ids of a transaction (sorted by id) as a path that stands for count transactions
+    @Override
+    public void insertTransaction(int[] transaction, int length, int count) {
+        Node currentNode = root;
+
+        //for each item in transaction
+        for (int i = 0; i < length; i++) {
+            int item = transaction[i];
+            //if child has the same item inc count
+            Node child = currentNode.getChild(item);
+            if (child != null) {
+                child.incCount(count);
+            } else {
+                //new item create node
+                child = new Node(item);
+                child.count = count;
+                currentNode.addChild(child);
+                nodeCount.incrementAndGet();
+                //nodeCount++;
+                //atomic increment++ method (good for memory)
+
+                //header table update O(1)
+                HeaderEntry entry = headerTable[item];
+                if (entry == null) {
+                    entry = new HeaderEntry();
+                    headerTable[item] = entry;
+                    entry.head = child;
+                } else {
+                    entry.tail.next = child;
+                }
+                entry.tail = child;
+            }
+            supports[item] += count;
+            currentNode = child;
+        }
+    }
+
+    @Override
+    protected void forEachPrefixPath(int item, int[] buffer, PathVisitor visitor) {
+        HeaderEntry entry = item < headerTable.length ? headerTable[item] : null;
+
+        //if item isn't in table there are no paths
+        if (entry == null) return;
+
+        //for each node in the linked list
+        for (Node node = entry.head; node != null; node = node.next) {
+            int length = 0;
+            //tree traversal to find prefix path
+            for (Node parent = node.parent; parent != null && parent.item >= 0; parent = parent.parent) {
+                buffer[length++] = parent.item;
+            }
+            visitor.visit(buffer, length, node.count);
+        }
+    }
+
+    @Override
+    protected FPTree newTree(int itemCount) {
+        return new NodeFPTree(itemCount);
+    }
+
+    @Override
+    public int[][] getSinglePath() {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        while (!node.children.isEmpty()) {
+            if (node.children.size() > 1) return null;
+            node = node.children.values().iterator().next();
+            path.add(node);
+        }
+        int[][] itemsAndCounts = new int[2][path.size()];
+        for (int i = 0; i < path.size(); i++) {
+            itemsAndCounts[0][i] = path.get(i).item;
+            itemsAndCounts[1][i] = path.get(i).count;
+        }
+        return itemsAndCounts;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.*;
+
+//bounded min-heap of the k most frequent itemsets found so far. Once it is full the least frequent one is on top and
+//its support is the threshold a new itemset has to beat, so the miner can raise its min support count as it goes.
+//Itemsets tied with the k-th one are kept in the order they were found
+class TopKItemsets {
+    private final int k;
+    private final int floor; //min support count to use until the heap is full
+    private final PriorityQueue<Entry> heap;
+
+    private static class Entry {
+        final int[] itemset;
+        final int support;
+
+        Entry(int[] itemset, int support) {
+            this.itemset = itemset;
+            this.support = support;
+        }
+    }
+
+    //floor = a support every one of the top k is known to reach (at least 1)
+    TopKItemsets(int k, int floor) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        this.k = k;
+        this.floor = Math.max(1, floor);
+        this.heap = new PriorityQueue<>(k, Comparator.comparingInt(e -> e.support));
+    }
+
+    //keeps the itemset (not copied) if it is among the k most frequent so far
+    void offer(int[] itemset, int support) {
+        if (heap.size() < k) {
+            if (support >= floor) heap.add(new Entry(itemset, support));
+        } else if (support > heap.peek().support) {
+            heap.poll();
+            heap.add(new Entry(itemset, support));
+        }
+    }
+
+    //support an itemset needs to get in, anything below it can be pruned with its whole branch
+    int getMinSupCount() {
+        return heap.size() < k ? floor : heap.peek().support + 1;
+    }
+
+    //the itemsets from most to least frequent (smaller itemsets first on ties)
+    FrequentItemsets toFrequentItemsets() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort((e1, e2) -> {
+            int cmp = Integer.compare(e2.support, e1.support);
+            if (cmp == 0) return Integer.compare(e1.itemset.length, e2.itemset.length);
+            return cmp;
+        });
+        FrequentItemsets frequentItemsets = new FrequentItemsets();
+        for (Entry entry : entries) {
+            frequentItemsets.add(entry.itemset, entry.itemset.length, entry.support);
+        }
+        return frequentItemsets;
+    }
+}